@@ -0,0 +1,44 @@
+package com.chazwinter.minesweeper.benchmark;
+
+import com.chazwinter.minesweeper.model.Minesweeper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long it takes to set up a new board: placing the bombs (randomizeAndPlaceBombs) and
+ * counting every cell's neighbors, which happens as each bomb is placed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoardGenerationBenchmark {
+    @Param({"9", "30", "100", "1000"})
+    public int size;
+
+    @Param({"0.12", "0.2", "0.35"})
+    public double density;
+
+    private int numBombs;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        numBombs = (int) (size * size * density);
+    }
+
+    @Benchmark
+    public Minesweeper initializeBoard() {
+        // A different seed every time, so the JIT can't get lucky with one particular layout.
+        Minesweeper minesweeper = new Minesweeper(size, size, numBombs, seed++);
+        minesweeper.initializeBoard();
+        return minesweeper;
+    }
+}
@@ -0,0 +1,106 @@
+package com.chazwinter.minesweeper.benchmark;
+
+import com.chazwinter.minesweeper.model.ChangeSet;
+import com.chazwinter.minesweeper.model.Minesweeper;
+import com.chazwinter.minesweeper.ui.ButtonBoardView;
+import com.chazwinter.minesweeper.util.UIProperties;
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a click costs on the UI side with the Button renderer: pointing the cells that changed at
+ * their cached CellGraphics image (updateCellAppearance), for one revealed cell, one flag, and a
+ * whole board full of cells (a big flood fill or the game over reveal).
+ *
+ * This needs the JavaFX toolkit (for the cell images), so it needs a display to run on.
+ * The cell graphics are snapshots, which only work on the JavaFX Application Thread, so setup
+ * waits for the images and fonts to load (or the view would get the placeholder graphics), and
+ * then the view is built and updated on the FX thread. Each measurement includes one hop over
+ * to the FX thread and back, which is the same for every benchmark here.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CellUpdateBenchmark {
+    private static final int SIZE = 30;
+
+    private ButtonBoardView boardView;
+    private ChangeSet revealedCell;
+    private ChangeSet flaggedCell;
+    private ChangeSet wholeBoard;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        try {
+            Platform.startup(() -> { });
+        } catch (IllegalStateException alreadyStarted) {
+            // Fine, it's running.
+        }
+        CountDownLatch loaded = new CountDownLatch(1);
+        UIProperties.whenResourcesLoaded(loaded::countDown);
+        loaded.await();
+
+        Minesweeper minesweeper = new Minesweeper(SIZE, SIZE, SIZE * SIZE / 5, 42);
+        minesweeper.initializeBoard();
+        onFxThread(() -> {
+            boardView = new ButtonBoardView();
+            boardView.newGame(minesweeper, null);
+        });
+
+        revealedCell = new ChangeSet(SIZE);
+        flaggedCell = new ChangeSet(SIZE);
+        wholeBoard = new ChangeSet(SIZE);
+        for (int cell = 0; cell < SIZE * SIZE; cell++) {
+            int row = cell / SIZE;
+            int col = cell % SIZE;
+            wholeBoard.add(cell);
+            if (revealedCell.isEmpty() && !minesweeper.isBomb(row, col) && minesweeper.getNeighborMines(row, col) > 0) {
+                minesweeper.reveal(row, col);
+                revealedCell.add(cell);
+            } else if (flaggedCell.isEmpty() && minesweeper.isBomb(row, col)) {
+                minesweeper.toggleFlag(row, col);
+                flaggedCell.add(cell);
+            }
+        }
+    }
+
+    @Benchmark
+    public void revealOneCell() throws InterruptedException {
+        onFxThread(() -> boardView.updateCells(revealedCell));
+    }
+
+    @Benchmark
+    public void flagOneCell() throws InterruptedException {
+        onFxThread(() -> boardView.updateCells(flaggedCell));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void updateWholeBoard() throws InterruptedException {
+        onFxThread(() -> boardView.updateCells(wholeBoard));
+    }
+
+    /**
+     * Run something on the JavaFX Application Thread, and wait for it to finish.
+     */
+    private static void onFxThread(Runnable action) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                action.run();
+            } finally {
+                done.countDown();
+            }
+        });
+        done.await();
+    }
+}
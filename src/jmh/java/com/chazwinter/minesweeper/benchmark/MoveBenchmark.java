@@ -0,0 +1,118 @@
+package com.chazwinter.minesweeper.benchmark;
+
+import com.chazwinter.minesweeper.model.Minesweeper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The moves that do the most work: a click that flood fills an empty area (floodFill), a chord
+ * (middle click), and a click on a bomb, which reveals the whole board (initializeGameOverState).
+ *
+ * Every move changes the board, so each invocation gets a fresh copy of the same board. Building
+ * it isn't part of the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MoveBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"9", "30", "100", "1000"})
+    public int size;
+
+    @Param({"0.05", "0.12", "0.2"})
+    public double density;
+
+    private int[] bombs;
+    private Minesweeper minesweeper;
+    private int emptyCell;      // A cell with no bombs around it, where a click starts a flood fill
+    private int numberCell;     // A cell with a number, that has something left to reveal around it
+    private int bombCell;
+
+    @Setup(Level.Trial)
+    public void findCells() {
+        Minesweeper template = new Minesweeper(size, size, (int) (size * size * density), SEED);
+        template.initializeBoard();
+        bombs = template.getBombCellIndices();
+        emptyCell = -1;
+        numberCell = -1;
+        for (int cell = 0; cell < size * size; cell++) {
+            int row = cell / size;
+            int col = cell % size;
+            if (template.isBomb(row, col)) {
+                continue;
+            }
+            if (emptyCell < 0 && template.getNeighborMines(row, col) == 0) {
+                emptyCell = cell;
+            }
+            if (numberCell < 0 && template.getNeighborMines(row, col) > 0 && hasSafeNeighbor(template, row, col)) {
+                numberCell = cell;
+            }
+        }
+        if (emptyCell < 0) {
+            emptyCell = numberCell;     // Very crowded board, so there's nothing to flood fill.
+        }
+        // Any bomb that won't be flagged for the chord.
+        for (int bomb : bombs) {
+            if (Math.abs(bomb / size - numberCell / size) > 1 || Math.abs(bomb % size - numberCell % size) > 1) {
+                bombCell = bomb;
+                break;
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void freshBoard() {
+        minesweeper = new Minesweeper(size, size, bombs.length, SEED);
+        minesweeper.initializeBoard(bombs);
+        // Get the number ready to chord: reveal it, and flag the bombs around it.
+        int row = numberCell / size;
+        int col = numberCell % size;
+        minesweeper.reveal(row, col);
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                if (minesweeper.isInBounds(r, c) && minesweeper.isBomb(r, c)) {
+                    minesweeper.toggleFlag(r, c);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean floodFill() {
+        minesweeper.reveal(emptyCell / size, emptyCell % size);
+        return minesweeper.isGameOver();
+    }
+
+    @Benchmark
+    public boolean chord() {
+        minesweeper.chord(numberCell / size, numberCell % size);
+        return minesweeper.isGameOver();
+    }
+
+    @Benchmark
+    public boolean gameOver() {
+        minesweeper.reveal(bombCell / size, bombCell % size);
+        return minesweeper.isGameOver();
+    }
+
+    private static boolean hasSafeNeighbor(Minesweeper minesweeper, int row, int col) {
+        for (int r = row - 1; r <= row + 1; r++) {
+            for (int c = col - 1; c <= col + 1; c++) {
+                if (minesweeper.isInBounds(r, c) && !minesweeper.isBomb(r, c) && (r != row || c != col)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
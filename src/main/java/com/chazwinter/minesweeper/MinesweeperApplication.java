@@ -1,16 +1,30 @@
 package com.chazwinter.minesweeper;
 
+import com.chazwinter.minesweeper.endless.ChunkedBoard;
+import com.chazwinter.minesweeper.perf.FlightRecording;
+import com.chazwinter.minesweeper.recording.GameRecorder;
+import com.chazwinter.minesweeper.ui.EndlessUIBuilder;
 import com.chazwinter.minesweeper.ui.MinesweeperUIBuilder;
+import com.chazwinter.minesweeper.ui.RendererType;
 import com.chazwinter.minesweeper.settings.GameSettings;
 import com.chazwinter.minesweeper.util.SoundManager;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
 public class MinesweeperApplication extends Application {
     private GameSettings gameSettings;
     private Stage settingsStage = new Stage();
     private MinesweeperUIBuilder uiBuilder;
+    private EndlessUIBuilder endlessUIBuilder;
+    private FlightRecording flightRecording;
 
     /**
      * Start the Minesweeper Application. Runs automatically when app is launched.
@@ -18,18 +32,88 @@ public class MinesweeperApplication extends Application {
      * the application scene can be set.
      * Applications may create other stages, if needed, but they will not be
      * primary stages.
+     * Launch with --renderer=canvas to draw the board on a single Canvas instead of Buttons.
+     * Launch with --record-dir=some/folder to record every game you play into that folder.
+     * Launch with --no-guess-budget=500 to change how many milliseconds no-guess boards may take.
+     * Launch with --jfr=game.jfr to record the game's JFR events (plus the JDK's usual ones) into game.jfr.
+     * Launch with --endless to play on a board with no edges instead (add --density=0.25 to change
+     * how many of the cells are bombs).
+     * Launch with --exit-after-first-frame to quit as soon as the window is up (the packaging
+     * uses this for a training run, to record which classes get loaded at startup).
      */
     @Override
     public void start(Stage primaryStage) {
-        this.gameSettings = new GameSettings(settingsStage, this::applyNewSettings);
-        uiBuilder = new MinesweeperUIBuilder(primaryStage, gameSettings);
-        SoundManager.loadSounds();
+        String jfrFile = getParameters().getNamed().get("jfr");
+        if (jfrFile != null) {
+            try {
+                flightRecording = new FlightRecording(Path.of(jfrFile));
+            } catch (IOException | ParseException e) {
+                System.out.println("Couldn't start the JFR recording: " + e.getMessage());
+            }
+        }
+        Scene scene;
+        if (getParameters().getUnnamed().contains("--endless")) {
+            String density = getParameters().getNamed().get("density");
+            endlessUIBuilder = new EndlessUIBuilder(
+                    density == null ? ChunkedBoard.DEFAULT_DENSITY : Double.parseDouble(density));
+            scene = endlessUIBuilder.buildScene();
+        } else {
+            scene = buildClassicScene(primaryStage);
+        }
 
         // Display everything on screen
-        Scene scene = uiBuilder.buildScene();
         primaryStage.setTitle("Chazsweeper!");
         primaryStage.setScene(scene);
         primaryStage.show();
+
+        // Load the sounds once the first frame is up, so they don't slow down startup.
+        boolean exitAfterFirstFrame = getParameters().getUnnamed().contains("--exit-after-first-frame");
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                // Runs after the rest of this pulse, which is when the first frame gets drawn.
+                Platform.runLater(() -> {
+                    printTimeToFirstFrame();
+                    if (exitAfterFirstFrame) {
+                        Platform.exit();
+                    } else {
+                        SoundManager.loadSounds();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Set up the usual game, with a board of a fixed size.
+     * @param primaryStage The window the game goes in.
+     * @return The Scene to be displayed.
+     */
+    private Scene buildClassicScene(Stage primaryStage) {
+        this.gameSettings = new GameSettings(settingsStage, this::applyNewSettings);
+        RendererType rendererType = RendererType.fromString(getParameters().getNamed().get("renderer"));
+        gameSettings.getValidator().setMaxGridSize(rendererType.getMaxGridSize());
+        String noGuessBudget = getParameters().getNamed().get("no-guess-budget");
+        if (noGuessBudget != null) {
+            gameSettings.setNoGuessBudgetMillis(Long.parseLong(noGuessBudget));
+        }
+        uiBuilder = new MinesweeperUIBuilder(primaryStage, gameSettings, rendererType);
+        String recordDir = getParameters().getNamed().get("record-dir");
+        if (recordDir != null) {
+            uiBuilder.setRecordingDirectory(Path.of(recordDir));
+        }
+        return uiBuilder.buildScene();
+    }
+
+    /**
+     * Print how long it took from launching the app to the first frame on screen, so it's easy
+     * to tell whether a change made startup faster or slower.
+     */
+    private static void printTimeToFirstFrame() {
+        ProcessHandle.current().info().startInstant().ifPresent(launched ->
+                System.out.println("Time to first frame: "
+                        + Duration.between(launched, Instant.now()).toMillis() + " ms"));
     }
 
     private void applyNewSettings() {
@@ -38,6 +122,23 @@ public class MinesweeperApplication extends Application {
         uiBuilder.resetGame();
     }
 
+    /**
+     * Make sure the game being recorded (if any) is completely written before the app exits.
+     */
+    @Override
+    public void stop() {
+        if (uiBuilder != null) {
+            uiBuilder.shutdown();
+        }
+        if (endlessUIBuilder != null) {
+            endlessUIBuilder.shutdown();
+        }
+        GameRecorder.awaitPendingWrites();
+        if (flightRecording != null) {
+            flightRecording.stop();
+        }
+    }
+
 
 
     public static void main(String[] args) {
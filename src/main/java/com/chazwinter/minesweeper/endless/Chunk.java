@@ -0,0 +1,33 @@
+package com.chazwinter.minesweeper.endless;
+
+/**
+ * One square piece of an endless board, CHUNK_SIZE cells on each side.
+ * Every cell is a single byte, packed the same way as the cells in Minesweeper:
+ * the low 4 bits are how many bombs are around it, and the rest are flags.
+ */
+final class Chunk {
+    static final int NEIGHBOR_MASK = 0x0F;
+    static final int BOMB = 0x10;
+    static final int REVEALED = 0x20;
+    static final int FLAGGED = 0x40;
+
+    final int chunkRow;
+    final int chunkCol;
+    final byte[] cells = new byte[ChunkedBoard.CHUNK_SIZE * ChunkedBoard.CHUNK_SIZE];
+    /* Whether the player changed something since the chunk was made or last written to disk. */
+    boolean dirty;
+
+    Chunk(int chunkRow, int chunkCol) {
+        this.chunkRow = chunkRow;
+        this.chunkCol = chunkCol;
+    }
+
+    /**
+     * @param localRow The row inside the chunk.
+     * @param localCol The column inside the chunk.
+     * @return The index of that cell in cells.
+     */
+    static int index(int localRow, int localCol) {
+        return (localRow << ChunkedBoard.CHUNK_SHIFT) | localCol;
+    }
+}
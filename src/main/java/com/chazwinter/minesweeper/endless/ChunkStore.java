@@ -0,0 +1,117 @@
+package com.chazwinter.minesweeper.endless;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Where chunks go when they're pushed out of memory. Only what the player did is saved
+ * (which cells are revealed and which are flagged, one bit each), since the bombs and
+ * numbers can always be made again from the seed. That's 256 bytes per chunk, one file each.
+ * Chunks the player never touched aren't written at all.
+ */
+final class ChunkStore {
+    private static final int PLANE_WORDS = ChunkedBoard.CHUNK_SIZE * ChunkedBoard.CHUNK_SIZE / Long.SIZE;
+    private static final int FILE_BYTES = 2 * PLANE_WORDS * Long.BYTES;
+
+    private final Path directory;
+    private final ByteBuffer buffer = ByteBuffer.allocate(FILE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private int chunksWritten;
+
+    /**
+     * Constructor for a store in a new, empty temporary directory.
+     * @throws IOException If the directory can't be made.
+     */
+    ChunkStore() throws IOException {
+        directory = Files.createTempDirectory("minesweeper-chunks");
+    }
+
+    /**
+     * Save what the player did in a chunk, replacing whatever was saved for it before.
+     * @param chunk The chunk to save.
+     * @throws IOException If the file can't be written.
+     */
+    void write(Chunk chunk) throws IOException {
+        buffer.clear();
+        putPlane(chunk, Chunk.REVEALED);
+        putPlane(chunk, Chunk.FLAGGED);
+        Path file = fileFor(chunk.chunkRow, chunk.chunkCol);
+        if (!Files.exists(file)) {
+            chunksWritten++;
+        }
+        Files.write(file, buffer.array());
+    }
+
+    /**
+     * Put back what the player did in a chunk, if it was ever saved.
+     * @param chunk A freshly generated chunk.
+     * @return True if the chunk had been saved (and now has its revealed and flagged cells back).
+     * @throws IOException If the file is there but can't be read.
+     */
+    boolean read(Chunk chunk) throws IOException {
+        Path file = fileFor(chunk.chunkRow, chunk.chunkCol);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length != FILE_BYTES) {
+            throw new IOException("Corrupt chunk file: " + file);
+        }
+        ByteBuffer saved = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        getPlane(saved, chunk, Chunk.REVEALED);
+        getPlane(saved, chunk, Chunk.FLAGGED);
+        return true;
+    }
+
+    /**
+     * @return How many different chunks have been written to disk.
+     */
+    int getChunksWritten() {
+        return chunksWritten;
+    }
+
+    /**
+     * Delete every saved chunk and the directory they were in.
+     * @throws IOException If something can't be deleted.
+     */
+    void delete() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private Path fileFor(int chunkRow, int chunkCol) {
+        return directory.resolve(chunkRow + "_" + chunkCol + ".chunk");
+    }
+
+    private void putPlane(Chunk chunk, int flag) {
+        byte[] cells = chunk.cells;
+        for (int word = 0; word < PLANE_WORDS; word++) {
+            long bits = 0;
+            int base = word * Long.SIZE;
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                if ((cells[base + bit] & flag) != 0) {
+                    bits |= 1L << bit;
+                }
+            }
+            buffer.putLong(bits);
+        }
+    }
+
+    private static void getPlane(ByteBuffer saved, Chunk chunk, int flag) {
+        byte[] cells = chunk.cells;
+        for (int word = 0; word < PLANE_WORDS; word++) {
+            long bits = saved.getLong();
+            int base = word * Long.SIZE;
+            for (; bits != 0; bits &= bits - 1) {
+                cells[base + Long.numberOfTrailingZeros(bits)] |= flag;
+            }
+        }
+    }
+}
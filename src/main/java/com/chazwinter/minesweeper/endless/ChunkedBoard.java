@@ -0,0 +1,403 @@
+package com.chazwinter.minesweeper.endless;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A Minesweeper board that goes on forever in every direction (well, as far as an int goes).
+ * It's split into square chunks of CHUNK_SIZE x CHUNK_SIZE cells, and a chunk only gets made
+ * the first time something touches it. Whether a cell is a bomb comes from a hash of the seed,
+ * the chunk it's in and where it is in the chunk, so a chunk always comes out the same, and the
+ * numbers along its edges can be worked out without making the chunks next to it.
+ *
+ * Only the most recently used chunks are kept in memory. When there are too many, the one that
+ * was used longest ago is dropped, and if the player revealed or flagged anything in it, that's
+ * written to disk first (see ChunkStore) and read back when the chunk is needed again.
+ * So memory stays the same size no matter how far you wander.
+ *
+ * The cells around (0, 0) never have bombs, so that's always a safe first click.
+ * There's no winning, only seeing how far you get. Everything here is meant to be used from
+ * one thread (the JavaFX Application Thread).
+ */
+public class ChunkedBoard implements AutoCloseable {
+    public static final int CHUNK_SIZE = 32;
+    static final int CHUNK_SHIFT = 5;
+    private static final int LOCAL_MASK = CHUNK_SIZE - 1;
+    /* Below this, the empty areas can get so big that a flood fill might never end. */
+    public static final double MIN_DENSITY = 0.15;
+    public static final double MAX_DENSITY = 0.35;
+    public static final double DEFAULT_DENSITY = 0.2;
+    /* About 1 KB each, so this is half a megabyte. Enough to cover a big screen zoomed all the way out. */
+    public static final int DEFAULT_MAX_LOADED_CHUNKS = 512;
+    private static final int[] NEIGHBOR_ROWS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] NEIGHBOR_COLS = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    private final long seed;
+    private final double density;
+    private final long bombThreshold;
+    private final int maxLoadedChunks;
+    /* In least recently used order, so the first one is the next to go. */
+    private final LinkedHashMap<Long, Chunk> chunks = new LinkedHashMap<>(16, 0.75f, true);
+    private final ChunkStore store;
+    private final boolean[] bombScratch = new boolean[(CHUNK_SIZE + 2) * (CHUNK_SIZE + 2)];
+    private Chunk lastChunk;    // Most moves stay in one chunk, so skip the map lookup for it.
+    private long[] floodFillStack = new long[64];
+    private long cellsRevealed;
+    private long flagsPlaced;
+    private long chunksGenerated;
+    private boolean gameOver;
+    private int explodedRow;
+    private int explodedCol;
+
+    /**
+     * Constructor for a new endless board with a random seed and the default settings.
+     * @throws IOException If the directory for chunks pushed out of memory can't be made.
+     */
+    public ChunkedBoard() throws IOException {
+        this(ThreadLocalRandom.current().nextLong(), DEFAULT_DENSITY, DEFAULT_MAX_LOADED_CHUNKS);
+    }
+
+    /**
+     * Constructor for a new endless board.
+     * @param seed The seed every chunk's bombs come from. The same seed always makes the same board.
+     * @param density The chance of each cell being a bomb (between MIN_DENSITY and MAX_DENSITY).
+     * @param maxLoadedChunks How many chunks to keep in memory at once.
+     * @throws IOException If the directory for chunks pushed out of memory can't be made.
+     */
+    public ChunkedBoard(long seed, double density, int maxLoadedChunks) throws IOException {
+        if (density < MIN_DENSITY || density > MAX_DENSITY) {
+            throw new IllegalArgumentException(String.format(
+                    "Bomb density must be between %.2f and %.2f", MIN_DENSITY, MAX_DENSITY));
+        }
+        if (maxLoadedChunks < 1) {
+            throw new IllegalArgumentException("At least one chunk has to fit in memory");
+        }
+        this.seed = seed;
+        this.density = density;
+        this.bombThreshold = (long) (density * (1L << 53));
+        this.maxLoadedChunks = maxLoadedChunks;
+        this.store = new ChunkStore();
+    }
+
+    /**
+     * Reveal a cell. If it has no bombs around it, the area around it is flood filled, across as
+     * many chunks as it takes. Revealing a bomb ends the game.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    public void reveal(int row, int col) {
+        if (gameOver) {
+            return;
+        }
+        Chunk chunk = chunkAt(row, col);
+        int index = localIndex(row, col);
+        if ((chunk.cells[index] & (Chunk.REVEALED | Chunk.FLAGGED)) != 0) {
+            return;
+        }
+        chunk.cells[index] |= Chunk.REVEALED;
+        chunk.dirty = true;
+        if ((chunk.cells[index] & Chunk.BOMB) != 0) {
+            gameOver = true;
+            explodedRow = row;
+            explodedCol = col;
+            return;
+        }
+        cellsRevealed++;
+        if ((chunk.cells[index] & Chunk.NEIGHBOR_MASK) == 0) {
+            floodFill(row, col);
+        }
+    }
+
+    /**
+     * Flag a hidden cell, or unflag it if it's already flagged. There's no limit on flags,
+     * since there's no limit on bombs.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    public void toggleFlag(int row, int col) {
+        if (gameOver) {
+            return;
+        }
+        Chunk chunk = chunkAt(row, col);
+        int index = localIndex(row, col);
+        if ((chunk.cells[index] & Chunk.REVEALED) != 0) {
+            return;
+        }
+        chunk.cells[index] ^= Chunk.FLAGGED;
+        chunk.dirty = true;
+        flagsPlaced += (chunk.cells[index] & Chunk.FLAGGED) != 0 ? 1 : -1;
+    }
+
+    /**
+     * Reveal every unflagged cell around a revealed number, if it has as many flags around it as bombs.
+     * @param row The row of the number.
+     * @param col The column of the number.
+     */
+    public void chord(int row, int col) {
+        if (gameOver || !isRevealed(row, col)) {
+            return;
+        }
+        int flaggedNeighbors = 0;
+        for (int i = 0; i < NEIGHBOR_ROWS.length; i++) {
+            if (isFlagged(row + NEIGHBOR_ROWS[i], col + NEIGHBOR_COLS[i])) {
+                flaggedNeighbors++;
+            }
+        }
+        if (flaggedNeighbors != getNeighborMines(row, col)) {
+            return;
+        }
+        for (int i = 0; i < NEIGHBOR_ROWS.length; i++) {
+            reveal(row + NEIGHBOR_ROWS[i], col + NEIGHBOR_COLS[i]);
+        }
+    }
+
+    /**
+     * Reveal everything connected to a zero, the same way Minesweeper does it: with its own stack
+     * instead of recursion, and every cell marked as revealed when it's pushed so it's only pushed once.
+     * Cells are pushed as (row, col) packed into a long, and their chunk is looked up when they're
+     * used, so a chunk that gets pushed out of memory halfway through is simply loaded again.
+     * @param startRow The row of the zero that was just revealed.
+     * @param startCol The column of that zero.
+     */
+    private void floodFill(int startRow, int startCol) {
+        long[] stack = floodFillStack;
+        int top = 0;
+        stack[top++] = pack(startRow, startCol);
+        while (top > 0) {
+            long cell = stack[--top];
+            int row = (int) (cell >> 32);
+            int col = (int) cell;
+            for (int i = 0; i < NEIGHBOR_ROWS.length; i++) {
+                int neighborRow = row + NEIGHBOR_ROWS[i];
+                int neighborCol = col + NEIGHBOR_COLS[i];
+                Chunk chunk = chunkAt(neighborRow, neighborCol);
+                int index = localIndex(neighborRow, neighborCol);
+                if ((chunk.cells[index] & (Chunk.REVEALED | Chunk.FLAGGED)) != 0) {
+                    continue;
+                }
+                // Neighbors of a zero cell can never be bombs, so no need to check.
+                chunk.cells[index] |= Chunk.REVEALED;
+                chunk.dirty = true;
+                cellsRevealed++;
+                if ((chunk.cells[index] & Chunk.NEIGHBOR_MASK) == 0) {
+                    if (top == stack.length) {
+                        stack = floodFillStack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    stack[top++] = pack(neighborRow, neighborCol);
+                }
+            }
+        }
+    }
+
+    public boolean isRevealed(int row, int col) {
+        return (cellAt(row, col) & Chunk.REVEALED) != 0;
+    }
+
+    public boolean isFlagged(int row, int col) {
+        return (cellAt(row, col) & Chunk.FLAGGED) != 0;
+    }
+
+    public boolean isBomb(int row, int col) {
+        return (cellAt(row, col) & Chunk.BOMB) != 0;
+    }
+
+    /**
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return True if this is the bomb that ended the game.
+     */
+    public boolean isExploded(int row, int col) {
+        return gameOver && row == explodedRow && col == explodedCol;
+    }
+
+    public int getNeighborMines(int row, int col) {
+        return cellAt(row, col) & Chunk.NEIGHBOR_MASK;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * @return How many safe cells have been revealed. This is the score, since there's no winning.
+     */
+    public long getCellsRevealed() {
+        return cellsRevealed;
+    }
+
+    public long getFlagsPlaced() {
+        return flagsPlaced;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getDensity() {
+        return density;
+    }
+
+    /**
+     * @return How many chunks are in memory right now. Never more than the limit.
+     */
+    public int getLoadedChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * @return How many chunks have been made (or made again after being pushed out of memory).
+     */
+    public long getChunksGenerated() {
+        return chunksGenerated;
+    }
+
+    /**
+     * @return How many different chunks have been written to disk.
+     */
+    public int getChunksOnDisk() {
+        return store.getChunksWritten();
+    }
+
+    /**
+     * Throw the board away, along with every chunk written to disk.
+     * @throws IOException If the chunk files can't be deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        chunks.clear();
+        lastChunk = null;
+        store.delete();
+    }
+
+    private byte cellAt(int row, int col) {
+        return chunkAt(row, col).cells[localIndex(row, col)];
+    }
+
+    /**
+     * Get the chunk a cell is in, making it (or loading it back from disk) if it isn't in memory.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The chunk.
+     */
+    private Chunk chunkAt(int row, int col) {
+        int chunkRow = row >> CHUNK_SHIFT;    // Same as floorDiv, so negative rows work too.
+        int chunkCol = col >> CHUNK_SHIFT;
+        Chunk chunk = lastChunk;
+        if (chunk != null && chunk.chunkRow == chunkRow && chunk.chunkCol == chunkCol) {
+            return chunk;
+        }
+        long key = pack(chunkRow, chunkCol);
+        chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = loadChunk(chunkRow, chunkCol);
+            chunks.put(key, chunk);
+            evictIfFull();
+        }
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Make a chunk's bombs and numbers, then put back anything the player did in it before it
+     * was pushed out of memory.
+     */
+    private Chunk loadChunk(int chunkRow, int chunkCol) {
+        Chunk chunk = new Chunk(chunkRow, chunkCol);
+        generate(chunk);
+        chunksGenerated++;
+        try {
+            store.read(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Couldn't load chunk " + chunkRow + ", " + chunkCol, e);
+        }
+        return chunk;
+    }
+
+    /**
+     * Drop the least recently used chunks until there's room, writing them to disk first
+     * if the player changed anything in them.
+     */
+    private void evictIfFull() {
+        Iterator<Map.Entry<Long, Chunk>> eldest = chunks.entrySet().iterator();
+        while (chunks.size() > maxLoadedChunks) {
+            Chunk chunk = eldest.next().getValue();
+            if (chunk.dirty) {
+                try {
+                    store.write(chunk);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Couldn't save chunk " + chunk.chunkRow + ", "
+                            + chunk.chunkCol, e);
+                }
+                chunk.dirty = false;
+            }
+            eldest.remove();
+            if (chunk == lastChunk) {
+                lastChunk = null;
+            }
+        }
+    }
+
+    /**
+     * Place a chunk's bombs and count the bombs around every cell. The cells just outside the
+     * chunk are needed for the counts along its edges, and since every cell's bomb comes from
+     * its own hash, they can be checked without making the chunks they belong to.
+     */
+    private void generate(Chunk chunk) {
+        int firstRow = chunk.chunkRow << CHUNK_SHIFT;
+        int firstCol = chunk.chunkCol << CHUNK_SHIFT;
+        int span = CHUNK_SIZE + 2;
+        boolean[] bombs = bombScratch;
+        for (int r = 0; r < span; r++) {
+            for (int c = 0; c < span; c++) {
+                bombs[r * span + c] = isBombAt(firstRow + r - 1, firstCol + c - 1);
+            }
+        }
+        for (int r = 0; r < CHUNK_SIZE; r++) {
+            for (int c = 0; c < CHUNK_SIZE; c++) {
+                int center = (r + 1) * span + (c + 1);
+                int count = 0;
+                for (int i = 0; i < NEIGHBOR_ROWS.length; i++) {
+                    if (bombs[center + NEIGHBOR_ROWS[i] * span + NEIGHBOR_COLS[i]]) {
+                        count++;
+                    }
+                }
+                chunk.cells[Chunk.index(r, c)] = (byte) (count | (bombs[center] ? Chunk.BOMB : 0));
+            }
+        }
+    }
+
+    /**
+     * Whether a cell has a bomb, straight from the hash of the seed, its chunk and its spot in the chunk.
+     */
+    private boolean isBombAt(int row, int col) {
+        if (Math.abs((long) row) <= 1 && Math.abs((long) col) <= 1) {
+            return false;   // Keep the starting area safe.
+        }
+        long chunkSeed = mix(seed ^ mix(pack(row >> CHUNK_SHIFT, col >> CHUNK_SHIFT)));
+        long hash = mix(chunkSeed + localIndex(row, col) * 0x9E3779B97F4A7C15L);
+        return (hash >>> 11) < bombThreshold;
+    }
+
+    private static int localIndex(int row, int col) {
+        return Chunk.index(row & LOCAL_MASK, col & LOCAL_MASK);
+    }
+
+    private static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Scramble a long so that nearby inputs give unrelated outputs (the SplitMix64 finalizer,
+     * the same one SplittableRandom uses).
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,94 @@
+package com.chazwinter.minesweeper.model;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Keeps a few boards ready to go in the background, so starting a new game doesn't have to
+ * wait for the bombs to be placed and counted (which takes a while on big boards).
+ * A background thread fills a small queue with boards for the current settings, and take()
+ * just grabs one. When the settings change, the boards in the queue are thrown away.
+ */
+public class BoardPregenerator {
+    private static final int QUEUE_SIZE = 2;
+
+    private final BlockingQueue<Minesweeper> readyBoards = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private volatile int[] settings;    // {height, width, numBombs} of the boards being made
+    private final Thread producer;
+
+    /**
+     * Start building boards in the background right away.
+     * @param height The number of rows on each board.
+     * @param width The number of columns on each board.
+     * @param numBombs The number of bombs on each board.
+     */
+    public BoardPregenerator(int height, int width, int numBombs) {
+        settings = new int[] {height, width, numBombs};
+        producer = new Thread(this::produce, "board-pregenerator");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    /**
+     * Get a board that's ready to play. If the settings are different from last time, every
+     * board made for the old settings is thrown away, and the background thread switches over.
+     * @param height The number of rows on the board.
+     * @param width The number of columns on the board.
+     * @param numBombs The number of bombs on the board.
+     * @return A new game with its bombs already placed.
+     */
+    public Minesweeper take(int height, int width, int numBombs) {
+        if (!matches(settings, height, width, numBombs)) {
+            settings = new int[] {height, width, numBombs};
+            readyBoards.clear();
+        }
+        Minesweeper board;
+        while ((board = readyBoards.poll()) != null) {
+            // The producer might have finished a board for the old settings just after the queue was cleared.
+            if (matches(board, height, width, numBombs)) {
+                return board;
+            }
+        }
+        // Nothing ready yet (the very first game, or the settings just changed), so build one right now.
+        return build(settings);
+    }
+
+    /**
+     * Stop building boards.
+     */
+    public void shutdown() {
+        producer.interrupt();
+    }
+
+    /**
+     * The background thread: build boards for the current settings, forever. put() waits
+     * whenever the queue is full, so it only ever gets QUEUE_SIZE boards ahead.
+     */
+    private void produce() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int[] current = settings;
+                Minesweeper board = build(current);
+                if (current == settings) {
+                    readyBoards.put(board);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down.
+        }
+    }
+
+    private static Minesweeper build(int[] settings) {
+        Minesweeper board = new Minesweeper(settings[0], settings[1], settings[2]);
+        board.initializeBoard();
+        return board;
+    }
+
+    private static boolean matches(int[] settings, int height, int width, int numBombs) {
+        return settings[0] == height && settings[1] == width && settings[2] == numBombs;
+    }
+
+    private static boolean matches(Minesweeper board, int height, int width, int numBombs) {
+        return board.getHeight() == height && board.getWidth() == width && board.getTotalBombs() == numBombs;
+    }
+}
@@ -0,0 +1,65 @@
+package com.chazwinter.minesweeper.model;
+
+import java.util.Arrays;
+
+/**
+ * A batch of Cells that changed during one move (a click, a flood fill, a chord, or the
+ * game-over reveal). The game collects every change first, then hands the whole batch to
+ * its listeners at once, so the UI can redraw everything in a single pass.
+ * Cells are stored as plain ints (row * width + col) so a huge flood fill doesn't
+ * create an object per cell.
+ * NOTE: The game reuses the same ChangeSet for every move, so listeners should use it
+ * right away instead of holding on to it.
+ */
+public class ChangeSet {
+    private static final int INITIAL_CAPACITY = 16;
+    private final int width;
+    private int[] cellIndices = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Constructor for an empty ChangeSet.
+     * @param width The width of the game grid, needed to turn an index back into a row and column.
+     */
+    public ChangeSet(int width) {
+        this.width = width;
+    }
+
+    /**
+     * Add a Cell to the batch.
+     * @param cellIndex The index of the Cell that changed (row * width + col).
+     */
+    public void add(int cellIndex) {
+        if (size == cellIndices.length) {
+            cellIndices = Arrays.copyOf(cellIndices, size * 2);
+        }
+        cellIndices[size++] = cellIndex;
+    }
+
+    /**
+     * Empty the batch so it can be reused for the next move.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getIndex(int i) {
+        return cellIndices[i];
+    }
+
+    public int getRow(int i) {
+        return cellIndices[i] / width;
+    }
+
+    public int getCol(int i) {
+        return cellIndices[i] % width;
+    }
+}
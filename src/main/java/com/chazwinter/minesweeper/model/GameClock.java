@@ -0,0 +1,97 @@
+package com.chazwinter.minesweeper.model;
+
+/**
+ * Keeps track of how long a game has been going, using System.nanoTime() so it doesn't care
+ * about the wall clock changing. It doesn't run any threads: the elapsed time is worked out
+ * whenever someone asks, so it can be read as often as you like (every frame, for example).
+ * Every Minesweeper game has one. It starts on the first move and stops when the game ends.
+ * It's safe to use from any thread.
+ */
+public class GameClock {
+    private long startNanos;
+    private long pausedNanos;     // The elapsed time when it was paused or stopped.
+    private boolean started;
+    private boolean running;
+    private boolean stopped;
+
+    /**
+     * Start counting, if it hasn't been started already.
+     */
+    public synchronized void start() {
+        if (!started) {
+            started = true;
+            running = true;
+            startNanos = System.nanoTime() - pausedNanos;   // Carries on from setElapsedNanos(), if it was used.
+        }
+    }
+
+    /**
+     * Set the time a game already took before it was saved, so a restored game carries on from there.
+     * It can only be set before the clock starts.
+     * @param elapsedNanos The time already on the clock, in nanoseconds.
+     */
+    public synchronized void setElapsedNanos(long elapsedNanos) {
+        if (started) {
+            throw new IllegalStateException("The clock has already started");
+        }
+        pausedNanos = elapsedNanos;
+    }
+
+    /**
+     * Stop counting for a while (for example, when the window is minimized).
+     */
+    public synchronized void pause() {
+        if (running) {
+            pausedNanos = System.nanoTime() - startNanos;
+            running = false;
+        }
+    }
+
+    /**
+     * Pick up counting where pause() left off. Does nothing if the clock was never started, or if it's stopped for good.
+     */
+    public synchronized void resume() {
+        if (started && !running && !stopped) {
+            startNanos = System.nanoTime() - pausedNanos;
+            running = true;
+        }
+    }
+
+    /**
+     * Stop counting for good. The elapsed time stays at whatever it is now.
+     */
+    public synchronized void stop() {
+        pause();
+        stopped = true;
+    }
+
+    /**
+     * Carry on counting after stop(), from the time it stopped at. Used when the move that
+     * ended the game is undone.
+     */
+    public synchronized void reopen() {
+        stopped = false;
+        resume();
+    }
+
+    /**
+     * @return How long the clock has been counting, in nanoseconds (not counting time spent paused).
+     */
+    public synchronized long getElapsedNanos() {
+        if (running) {
+            return System.nanoTime() - startNanos;
+        }
+        return pausedNanos;
+    }
+
+    /**
+     * @return How long the clock has been counting, in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return getElapsedNanos() / 1_000_000;
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,50 @@
+package com.chazwinter.minesweeper.model;
+
+/**
+ * Anything that wants to know what happens during a game of Minesweeper (the UI, a bot,
+ * a benchmark...) implements this and subscribes with Minesweeper.addListener().
+ * The game itself doesn't know or care who is listening, so it can run without a screen.
+ * All methods do nothing by default, so a listener only needs to override what it uses.
+ */
+public interface GameListener {
+
+    /**
+     * Called at the start of every move the player makes, before anything changes.
+     * @param moveType What kind of move it is.
+     * @param row The row of the Cell the move was made on.
+     * @param col The column of the Cell the move was made on.
+     */
+    default void onMove(MoveType moveType, int row, int col) {
+    }
+
+    /**
+     * Called once per move with every Cell that changed state (revealed, flagged, or unflagged).
+     * The ChangeSet is reused by the game, so use it before returning.
+     * @param changes The Cells that changed during the move.
+     */
+    default void onCellsChanged(ChangeSet changes) {
+    }
+
+    /**
+     * Called when the number of mines left to flag goes up or down.
+     * @param minesRemaining The number of mines that have not been flagged yet.
+     */
+    default void onMinesRemainingChanged(int minesRemaining) {
+    }
+
+    /**
+     * Called once when the game ends, after the final move's changes and before the
+     * rest of the board is revealed (which arrives as one more ChangeSet).
+     * @param youWon true if you won, false if you clicked on a bomb.
+     */
+    default void onGameOver(boolean youWon) {
+    }
+
+    /**
+     * Called when a move is undone, after the board has been put back and before the cells
+     * that changed arrive as a ChangeSet. Anything worked out from the cells that are hidden
+     * again (or from the game being over) is out of date now.
+     */
+    default void onUndo() {
+    }
+}
@@ -1,48 +1,115 @@
 package com.chazwinter.minesweeper.model;
 
-import com.chazwinter.minesweeper.ui.MinesweeperUIBuilder;
-import com.chazwinter.minesweeper.util.SoundManager;
-import javafx.scene.control.Button;
+import com.chazwinter.minesweeper.perf.BoardGenerationEvent;
+import com.chazwinter.minesweeper.perf.ChordEvent;
+import com.chazwinter.minesweeper.perf.FloodFillEvent;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * The game engine. This is plain Java with no JavaFX in it, so it can run without a
+ * screen (batch jobs, benchmarks, bots). Moves are made by row and column, and anything
+ * that wants to show the game on screen subscribes as a GameListener.
+ *
+ * The board is stored as one flat byte per cell, with an extra ring of "border" cells
+ * around the outside. Every real cell has 8 neighbors in the array (some of them border
+ * cells), so looking at neighbors never needs a bounds check.
+ */
 public class Minesweeper {
-    private final MinesweeperUIBuilder uiBuilder;
+    /* What each byte in the grid means. The low 4 bits are the number of neighbor bombs. */
+    private static final int NEIGHBOR_MASK = 0x0F;
+    private static final int BOMB = 0x10;
+    private static final int REVEALED = 0x20;
+    private static final int FLAGGED = 0x40;
+    private static final int BORDER = 0x80;
+
+    private final List<GameListener> listeners = new ArrayList<>();
     private final int width;
     private final int height;
+    private final long seed;
+    private boolean reproducibleFromSeed;   // Only if the bombs were placed randomly from the seed.
+    private final int totalBombs;
     private int numBombs;
     private int numReveals;
     private boolean youWon;
-    private final Cell[][] cellGrid;
-    private final Map<Button, Cell> buttonCellMap = new HashMap<>();
-    private boolean weAreDebugging = false;
+    private boolean gameOver;
+    private int explodedIndex = -1;
+    private final ChangeSet changes;
+    private final GameClock clock = new GameClock();
+    private final MoveHistory history = new MoveHistory();
+    private int[] floodFillStack;
+
+    /* The padded grid. Row r, column c of the game lives at (r + 1) * stride + (c + 1). */
+    private final int stride;
+    private final byte[] grid;
+    /* Where each of the 8 neighbors is relative to the current cell.
+        For example, the top-left neighbor is one row up and one column left. */
+    private final int[] neighborOffsets;
 
-    /* Two arrays to represent where a neighbor cell is relative to the current one.
-        For example, the top-left cell is row-1 and col-1. */
-    int[] dRow = new int[] {-1, -1, -1,
-                             0,      0,
-                             1,  1,  1};
-    int[] dCol = new int[] {-1,  0,  1,
-                            -1,      1,
-                            -1,  0,  1};
+    /**
+     * Constructor for starting a new game of Minesweeper with a random seed.
+     * @param height The height of the game grid.
+     * @param width The width of the game grid.
+     * @param numBombs The number of bombs within the grid.
+     */
+    public Minesweeper(int height, int width, int numBombs) {
+        this(height, width, numBombs, ThreadLocalRandom.current().nextLong());
+    }
 
     /**
-     * Constructor for starting a new game of Minesweeper.
+     * Constructor for starting a new game of Minesweeper from a known seed.
+     * The same seed and settings always put the bombs in the same places.
      * @param height The height of the game grid.
      * @param width The width of the game grid.
      * @param numBombs The number of bombs within the grid.
-     * @param uiBuilder updates the appearance of the game grid as you play.
+     * @param seed The seed used to place the bombs.
      */
-    public Minesweeper(int height, int width, int numBombs, MinesweeperUIBuilder uiBuilder) {
+    public Minesweeper(int height, int width, int numBombs, long seed) {
+        if (numBombs < 0 || numBombs > height * width) {
+            throw new IllegalArgumentException(String.format(
+                    "Can't fit %d bombs on a %dx%d grid", numBombs, height, width));
+        }
+        this.seed = seed;
         this.height = height;
         this.width = width;
+        this.totalBombs = numBombs;
         this.numBombs = numBombs;
         this.numReveals = width * height - numBombs;
-        this.uiBuilder = uiBuilder;
-        this.cellGrid = new Cell[height][width];
+        this.changes = new ChangeSet(width);
+        this.stride = width + 2;
+        this.grid = new byte[(height + 2) * stride];
+        this.neighborOffsets = new int[] {-stride - 1, -stride, -stride + 1,
+                                          -1,                    1,
+                                           stride - 1,  stride,  stride + 1};
+        // Mark the ring around the outside, so nothing ever tries to reveal or count it.
+        for (int col = 0; col < stride; col++) {
+            grid[col] = (byte) BORDER;
+            grid[(height + 1) * stride + col] = (byte) BORDER;
+        }
+        for (int row = 1; row <= height; row++) {
+            grid[row * stride] = (byte) BORDER;
+            grid[row * stride + width + 1] = (byte) BORDER;
+        }
+    }
+
+    /**
+     * Subscribe to changes in the game, so you can display them (or whatever else you want).
+     * @param listener The listener to notify when something happens.
+     */
+    public void addListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Stop notifying a listener about changes in the game.
+     * @param listener The listener to remove.
+     */
+    public void removeListener(GameListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -50,189 +117,384 @@ public class Minesweeper {
      */
     public void initializeBoard() {
         randomizeAndPlaceBombs();
-        calculateNeighbors();
-        showAllBombsForDebugging(weAreDebugging);
     }
 
     /**
-     * Randomly place bombs on the new game board.
+     * Sets up the game board with bombs in exactly the given places, instead of placing them
+     * randomly from the seed. Used to replay recorded games and for no-guess boards. The seed
+     * can't recreate a board set up this way (see isReproducibleFromSeed()).
+     * @param bombCellIndices The cells (row * width + col) to put bombs on.
      */
-    public void randomizeAndPlaceBombs() {
-        int totalCells = width * height;
-        /* Obtain a Set of random numbers == the number of expected mines */
-        Set<Integer> randomNums = new HashSet<>();
-        while (randomNums.size() < numBombs) {
-            int randomNum = (int) (Math.random() * totalCells);
-            randomNums.add(randomNum);
+    public void initializeBoard(int[] bombCellIndices) {
+        if (bombCellIndices.length != totalBombs) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected %d bombs but got %d", totalBombs, bombCellIndices.length));
         }
-        for (int num : randomNums) {
-            int row = num / width;
-            int col = num % width;
-            Cell cellToPlaceBomb = cellGrid[row][col];
-            cellToPlaceBomb.setIsBomb(true);
+        BoardGenerationEvent event = new BoardGenerationEvent();
+        event.begin();
+        for (int cellIndex : bombCellIndices) {
+            int index = paddedIndex(cellIndex);
+            if ((grid[index] & BOMB) != 0) {
+                throw new IllegalArgumentException("Two bombs on the same cell: " + cellIndex);
+            }
+            placeBomb(index);
         }
+        commitBoardGeneration(event);
     }
 
     /**
-     * Private method used to determine the number of bombs surrounding each Cell.
+     * Randomly place bombs on the new game board, using the game's seed.
+     * This is Floyd's sampling algorithm: for each of the last numBombs cell indices j,
+     * pick a random index from 0 to j, and if that cell already has a bomb, put the bomb
+     * on cell j instead (it can't have one yet). The grid itself remembers which cells are
+     * taken, so this does exactly one random draw per bomb and allocates nothing, even
+     * when almost every cell is a bomb.
+     * Neighbor counts are bumped as each bomb goes down, so there's no separate pass over
+     * the whole board afterwards.
      */
-    private void calculateNeighbors() {
-        int numNeighbors = 0;
-        // For each cell, check each neighbor, and increment count if it's a bomb.
-        for (int row = 0; row < height; row++) {
-            for (int col = 0; col < width; col++) {
-                for (int i = 0; i < dRow.length; i++) {
-                    int newRow = row + dRow[i];
-                    int newCol = col + dCol[i];
-                    if (isInBounds(newRow, newCol) && cellGrid[newRow][newCol].isBomb()) {
-                        numNeighbors++;
-                    }
-                }
-                cellGrid[row][col].setNeighborMines(numNeighbors);
-                numNeighbors = 0;
+    public void randomizeAndPlaceBombs() {
+        BoardGenerationEvent event = new BoardGenerationEvent();
+        event.begin();
+        SplittableRandom random = new SplittableRandom(seed);
+        reproducibleFromSeed = true;
+        int totalCells = width * height;
+        for (int j = totalCells - totalBombs; j < totalCells; j++) {
+            int candidate = paddedIndex(random.nextInt(j + 1));
+            if ((grid[candidate] & BOMB) != 0) {
+                candidate = paddedIndex(j);
             }
+            placeBomb(candidate);
         }
+        commitBoardGeneration(event);
     }
 
     /**
-     * Basically just a cheat code to view the bombs on screen while you're
-     * playing...er, I mean "debugging."
-     * @param weAreDebugging Class level parameter. Set it to true if you want to see
-     *                       the bombs as you're playing.
+     * Finish the JFR event for placing the bombs (if anyone is recording).
+     * @param event The event, started before the first bomb was placed.
      */
-    private void showAllBombsForDebugging(boolean weAreDebugging) {
-        if (weAreDebugging) {
-            for (int row = 0; row < height; row++) {
-                for (int col = 0; col < width; col++) {
-                    Cell cell = cellGrid[row][col];
-                    if (cell.isBomb()) {
-                        uiBuilder.updateCellAppearance(cell.getCellButton(), cell, true);
-                    }
-                }
-            }
+    private void commitBoardGeneration(BoardGenerationEvent event) {
+        if (event.shouldCommit()) {
+            event.height = height;
+            event.width = width;
+            event.bombs = totalBombs;
+            event.commit();
         }
     }
 
     /**
-     * Change the game state after you left-click on a Cell Button.
-     * @param cellButton The Button you clicked on the game board.
+     * Put a bomb on a cell and add one to the neighbor count of everything around it.
+     * Border cells get counted too, but nobody ever looks at them.
+     * @param index The padded index of the cell.
      */
-    public void processCellLeftClick(Button cellButton) {
-        Cell cell = buttonCellMap.get(cellButton);
-        /* Don't try to reveal flagged cells, or cells that are already revealed. */
-        if (cell.isRevealed() || cell.isFlagged()) {
-            return;
-        }
-        boolean didWeFloodFill = false;
-        if (cell.getNeighborMines() == 0) {
-            didWeFloodFill = true;
-            floodFill(cell);
-        }
-        cell.setIsRevealed(true);
-        // Reveals are also handled by Flood Fill, so don't count them twice.
-        if (!didWeFloodFill) {
-            numReveals--;
-        }
-        uiBuilder.updateCellAppearance(cellButton, cell, true);
-        if (cell.isBomb()) {
-            youWon = false;
-            initializeGameOverState(youWon);
+    private void placeBomb(int index) {
+        grid[index] |= BOMB;
+        for (int offset : neighborOffsets) {
+            grid[index + offset]++;
         }
-        System.out.println("Number of reveals remaining: " + numReveals);
-        if (numReveals == 0) {
-            youWon = true;
-            initializeGameOverState(youWon);
+    }
+
+    /**
+     * Change the game state after you left-click on a Cell.
+     * @param row The row of the Cell you clicked on the game board.
+     * @param col The column of the Cell you clicked on the game board.
+     */
+    public void reveal(int row, int col) {
+        // Clicking a flagged or already revealed cell isn't a move, so it doesn't start the clock or get recorded.
+        if (gameOver || (grid[paddedIndex(row, col)] & (REVEALED | FLAGGED)) != 0) {
+            return;
         }
+        fireMove(MoveType.REVEAL, row, col);
+        changes.clear();
+        revealCell(paddedIndex(row, col));
+        recordMove(MoveType.REVEAL);
+        finishMove();
     }
 
     /**
-     * Game logic to run when the user right-clicks on a button on the game grid.
-     * This was moved into its own method because the left-click method was getting complicated.
-     * @param cellButton The button that was right-clicked.
+     * Game logic to run when the user right-clicks on a Cell on the game grid.
+     * Flags the Cell if it isn't flagged, and unflags it if it is.
+     * @param row The row of the Cell that was right-clicked.
+     * @param col The column of the Cell that was right-clicked.
      */
-    public void processCellRightClick(Button cellButton) {
-        Cell cell = buttonCellMap.get(cellButton);
-        // Right-clicking on a revealed cell, or when you used all your bombs, should do nothing.
-        if (cell.isRevealed() || numBombs == 0) {
+    public void toggleFlag(int row, int col) {
+        int index = paddedIndex(row, col);
+        // Right-clicking on a revealed cell should do nothing, and so should flagging with no flags left.
+        boolean flagged = (grid[index] & FLAGGED) != 0;
+        if (gameOver || (grid[index] & REVEALED) != 0 || (!flagged && numBombs == 0)) {
             return;
         }
-        if (cell.isFlagged()) { // Cell was already flagged; unflag it.
-            cell.setIsFlagged(false);
+        fireMove(MoveType.FLAG, row, col);
+        if (flagged) { // Cell was already flagged; unflag it.
+            grid[index] &= ~FLAGGED;
             numBombs++;
         } else { // Newly flagged cell.
-            cell.setIsFlagged(true);
+            grid[index] |= FLAGGED;
             numBombs--;
         }
-        uiBuilder.updateMineCounter(numBombs);
-        uiBuilder.updateCellAppearance(cellButton, cell, false);
+        for (GameListener listener : listeners) {
+            listener.onMinesRemainingChanged(numBombs);
+        }
+        changes.clear();
+        changes.add(row * width + col);
+        recordMove(MoveType.FLAG);
+        fireCellsChanged();
     }
 
     /**
-     * Game logic to run when the user middle clicks (or left+right clicks) a button
+     * Game logic to run when the user middle clicks (or left+right clicks) a Cell
      * on the game grid.
      * Essentially just left-clicks all neighbor cells that are not flagged as bombs.
-     * @param cellButton The button that was clicked.
+     * @param row The row of the Cell that was clicked.
+     * @param col The column of the Cell that was clicked.
      */
-    public void processCellMiddleClick(Button cellButton) {
-        Cell cell = buttonCellMap.get(cellButton);
-        if (!cell.isRevealed()) {
+    public void chord(int row, int col) {
+        int index = paddedIndex(row, col);
+        // Only reveal the neighbor cells if you have identified the surrounding bombs.
+        if (gameOver || (grid[index] & REVEALED) == 0
+                || (grid[index] & NEIGHBOR_MASK) != countFlaggedNeighbors(index)) {
             return;
         }
-        int flaggedNeighbors = countFlaggedNeighbors(cell);
-        // Only reveal the neighbor cells if you have identified the surrounding bombs.
-        if (cell.getNeighborMines() ==  flaggedNeighbors) {
-            for (int i = 0; i < dRow.length; i++) {
-                int newRow = cell.getRow() + dRow[i];
-                int newCol = cell.getCol() + dCol[i];
-                if (isInBounds(newRow, newCol)) {
-                    processCellLeftClick(cellGrid[newRow][newCol].getCellButton());
-                }
-            }
+        fireMove(MoveType.CHORD, row, col);
+        ChordEvent event = new ChordEvent();
+        event.begin();
+        changes.clear();
+        for (int offset : neighborOffsets) {
+            revealCell(index + offset);
+        }
+        if (event.shouldCommit()) {
+            event.height = height;
+            event.width = width;
+            event.cellsRevealed = changes.size();
+            event.commit();
         }
+        recordMove(MoveType.CHORD);
+        finishMove();
     }
 
     /**
-     * Recursive method to mark an entire section of the game board as revealed if you
-     * find a cell that has no bombs as neighbors.
-     * @param cell The cell with no bombs as neighbors.
+     * Reveal a single Cell and add it to the current ChangeSet. If the Cell has no bombs
+     * as neighbors, flood fill the area around it too.
+     * Listeners are not told about it until the move is finished.
+     * @param index The padded index of the Cell to reveal.
      */
-    private void floodFill(Cell cell) {
-        // Base case: Don't process this cell if it was already processed.
-        if (cell.isRevealed()) {
+    private void revealCell(int index) {
+        /* Don't try to reveal flagged cells, cells that are already revealed, or the border. */
+        if ((grid[index] & (REVEALED | FLAGGED | BORDER)) != 0) {
+            return;
+        }
+        grid[index] |= REVEALED;
+        changes.add(cellIndex(index));
+        if ((grid[index] & BOMB) != 0) {
+            explodedIndex = index;
             return;
         }
-        cell.setIsRevealed(true);
         numReveals--;
-        Button button = cell.getCellButton();
-        uiBuilder.updateCellAppearance(button, cell, true);
-
-        // Recursive case: If the current cell has no mines as neighbors, flood fill its neighbors.
-        if (cell.getNeighborMines() == 0) {
-            for (int i = 0; i < dRow.length; i++) {
-                int newRow = cell.getRow() + dRow[i];
-                int newCol = cell.getCol() + dCol[i];
-                if (isInBounds(newRow, newCol)) {
-                    Cell cellToFill = cellGrid[newRow][newCol];
-                    floodFill(cellToFill);
+        if ((grid[index] & NEIGHBOR_MASK) == 0) {
+            FloodFillEvent event = new FloodFillEvent();
+            event.begin();
+            int changedBefore = changes.size();
+            floodFill(index);
+            if (event.shouldCommit()) {
+                event.height = height;
+                event.width = width;
+                event.cellsRevealed = changes.size() - changedBefore + 1;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Mark an entire section of the game board as revealed if you find a cell that has
+     * no bombs as neighbors.
+     * This uses its own stack of cell indices instead of recursion, so a huge open area
+     * can't overflow the Java stack. Every cell is pushed at most once (it's marked as
+     * revealed when it's pushed), so the stack never needs to be bigger than the board.
+     * @param startIndex The padded index of the already-revealed cell with no bombs as neighbors.
+     */
+    private void floodFill(int startIndex) {
+        if (floodFillStack == null) {
+            floodFillStack = new int[width * height];
+        }
+        int[] stack = floodFillStack;
+        int top = 0;
+        stack[top++] = startIndex;
+        while (top > 0) {
+            int index = stack[--top];
+            for (int offset : neighborOffsets) {
+                int neighbor = index + offset;
+                if ((grid[neighbor] & (REVEALED | FLAGGED | BORDER)) != 0) {
+                    continue;
+                }
+                // Neighbors of a zero cell can never be bombs, so no need to check.
+                grid[neighbor] |= REVEALED;
+                numReveals--;
+                changes.add(cellIndex(neighbor));
+                if ((grid[neighbor] & NEIGHBOR_MASK) == 0) {
+                    stack[top++] = neighbor;
                 }
             }
         }
     }
 
+    /**
+     * Add the move that was just made to the history, so it can be undone. Moves that
+     * didn't change anything are left out.
+     * @param moveType What kind of move it was.
+     */
+    private void recordMove(MoveType moveType) {
+        if (!changes.isEmpty()) {
+            history.record(moveType, changes);
+        }
+    }
+
+    /**
+     * Take back the last move (a reveal, flag or chord), even the one that lost the game.
+     * Only the cells that move changed are touched, so undoing a huge flood fill is as quick as
+     * making it was. Taking back the move that ended the game also hides the rest of the board
+     * again and starts the clock back up.
+     * @return True if there was a move to undo.
+     */
+    public boolean undo() {
+        if (!history.canUndo()) {
+            return false;
+        }
+        int move = history.undo();
+        MoveType moveType = history.getType(move);
+        changes.clear();
+        if (gameOver) {
+            hideCellsNotRevealedBy(move);
+            gameOver = false;
+            youWon = false;
+            explodedIndex = -1;
+            clock.reopen();
+        } else if (moveType == MoveType.FLAG) {
+            toggleFlagFromHistory(move);
+        } else {
+            for (int i = history.getStart(move); i < history.getEnd(move); i++) {
+                int cell = history.getCell(i);
+                grid[paddedIndex(cell)] &= ~REVEALED;
+                numReveals++;
+                changes.add(cell);
+            }
+        }
+        // A copy, so listeners can stop listening when they hear about it.
+        for (GameListener listener : List.copyOf(listeners)) {
+            listener.onUndo();
+        }
+        fireCellsChanged();
+        if (moveType == MoveType.FLAG) {
+            for (GameListener listener : listeners) {
+                listener.onMinesRemainingChanged(numBombs);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Make the last undone move again, exactly the way it went the first time.
+     * @return True if there was a move to redo.
+     */
+    public boolean redo() {
+        if (gameOver || !history.canRedo()) {
+            return false;
+        }
+        int move = history.redo();
+        changes.clear();
+        if (history.getType(move) == MoveType.FLAG) {
+            toggleFlagFromHistory(move);
+            fireCellsChanged();
+            for (GameListener listener : listeners) {
+                listener.onMinesRemainingChanged(numBombs);
+            }
+            return true;
+        }
+        for (int i = history.getStart(move); i < history.getEnd(move); i++) {
+            int cell = history.getCell(i);
+            int index = paddedIndex(cell);
+            grid[index] |= REVEALED;
+            changes.add(cell);
+            if ((grid[index] & BOMB) != 0) {
+                explodedIndex = index;
+            } else {
+                numReveals--;
+            }
+        }
+        finishMove();
+        return true;
+    }
+
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    public boolean canRedo() {
+        return !gameOver && history.canRedo();
+    }
+
+    /**
+     * Helper method to flip the flag a FLAG move put on (or took off) its cell.
+     */
+    private void toggleFlagFromHistory(int move) {
+        int cell = history.getCell(history.getStart(move));
+        int index = paddedIndex(cell);
+        grid[index] ^= FLAGGED;
+        numBombs += (grid[index] & FLAGGED) != 0 ? -1 : 1;
+        changes.add(cell);
+    }
+
+    /**
+     * Hide every cell that the first few moves in the history didn't reveal. This is how the
+     * end of the game is undone, since the reveal of the whole board isn't kept in the history
+     * (it's most of the board, and it's always just "everything else").
+     * @param moves How many moves (from the start of the history) to keep.
+     */
+    private void hideCellsNotRevealedBy(int moves) {
+        BitSet keep = new BitSet(width * height);
+        for (int move = 0; move < moves; move++) {
+            if (history.getType(move) != MoveType.FLAG) {
+                for (int i = history.getStart(move); i < history.getEnd(move); i++) {
+                    keep.set(history.getCell(i));
+                }
+            }
+        }
+        numReveals = width * height - totalBombs - keep.cardinality();
+        for (int row = 0; row < height; row++) {
+            int index = paddedIndex(row, 0);
+            for (int col = 0; col < width; col++, index++) {
+                int cell = row * width + col;
+                if ((grid[index] & REVEALED) != 0 && !keep.get(cell)) {
+                    grid[index] &= ~REVEALED;
+                    changes.add(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tell the listeners about everything that changed during the move, then check
+     * whether the move won or lost the game.
+     */
+    private void finishMove() {
+        fireCellsChanged();
+        if (explodedIndex >= 0) {
+            youWon = false;
+            initializeGameOverState(youWon);
+        } else if (numReveals == 0) {
+            youWon = true;
+            initializeGameOverState(youWon);
+        }
+    }
+
     /**
      * Helper method to count the number of cells around the given cell
      * that have been flagged as bombs.
-     * @param cell The game cell whose neighbors we're checking.
+     * @param index The padded index of the game cell whose neighbors we're checking.
      * @return The number of cells that have been flagged as bombs.
      */
-    private int countFlaggedNeighbors(Cell cell) {
+    private int countFlaggedNeighbors(int index) {
         int count = 0;
-        for (int i = 0; i < dRow.length; i++) {
-            int newRow = cell.getRow() + dRow[i];
-            int newCol = cell.getCol() + dCol[i];
-            if (isInBounds(newRow, newCol) && cellGrid[newRow][newCol].isFlagged()) {
-                count++;
-            }
+        for (int offset : neighborOffsets) {
+            count += (grid[index + offset] & FLAGGED) >>> 6;
         }
         return count;
     }
@@ -243,19 +505,34 @@ public class Minesweeper {
      * @param col the column of the cell the check.
      * @return true if the cell is in bounds, false if it is not.
      */
-    private boolean isInBounds(int row, int col) {
+    public boolean isInBounds(int row, int col) {
         return row >= 0 && row < height
                 && col >= 0 && col < width;
     }
 
     /**
-     * Register each Button and Cell into the game grid, so they can be checked as you play.
-     * @param cellButton The Button to be registered in the game grid.
-     * @param cell The Cell to be registered in the game grid.
+     * Tell everyone who is listening that a move is about to be made.
+     * @param moveType What kind of move it is.
+     * @param row The row of the Cell the move was made on.
+     * @param col The column of the Cell the move was made on.
      */
-    public void registerCellButton(Button cellButton, Cell cell) {
-        buttonCellMap.put(cellButton, cell);
-        cellGrid[cell.getRow()][cell.getCol()] = cell;
+    private void fireMove(MoveType moveType, int row, int col) {
+        clock.start();  // Only does anything on the first move.
+        for (GameListener listener : listeners) {
+            listener.onMove(moveType, row, col);
+        }
+    }
+
+    /**
+     * Tell everyone who is listening which Cells changed during this move.
+     */
+    private void fireCellsChanged() {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (GameListener listener : listeners) {
+            listener.onCellsChanged(changes);
+        }
     }
 
     /**
@@ -263,24 +540,284 @@ public class Minesweeper {
      * and remind you which cell you screwed up at.
      */
     private void initializeGameOverState(boolean youWon) {
-        if (youWon) {
-            // Show the good ending
-            SoundManager.playWinnerSound();
-        } else {
-            // Show the bad ending
-            SoundManager.playLoserSound();
+        gameOver = true;
+        clock.stop();
+        for (GameListener listener : listeners) {
+            listener.onGameOver(youWon);
         }
-        uiBuilder.setGameOver();
         numReveals = -1;
+        changes.clear();
+        for (int row = 0; row < height; row++) {
+            int index = paddedIndex(row, 0);
+            for (int col = 0; col < width; col++, index++) {
+                if ((grid[index] & REVEALED) == 0) {
+                    grid[index] |= REVEALED;
+                    changes.add(row * width + col);
+                }
+            }
+        }
+        fireCellsChanged();
+    }
+
+    /* Conversions between (row, col), plain cell indices (row * width + col), and padded grid indices. */
+
+    private int paddedIndex(int row, int col) {
+        return (row + 1) * stride + col + 1;
+    }
+
+    private int paddedIndex(int cellIndex) {
+        return paddedIndex(cellIndex / width, cellIndex % width);
+    }
+
+    private int cellIndex(int paddedIndex) {
+        return (paddedIndex / stride - 1) * width + paddedIndex % stride - 1;
+    }
+
+    public boolean isBomb(int row, int col) {
+        return (grid[paddedIndex(row, col)] & BOMB) != 0;
+    }
+
+    public boolean isRevealed(int row, int col) {
+        return (grid[paddedIndex(row, col)] & REVEALED) != 0;
+    }
+
+    public boolean isFlagged(int row, int col) {
+        return (grid[paddedIndex(row, col)] & FLAGGED) != 0;
+    }
+
+    /**
+     * Endgame only - the bomb you clicked on, so the UI can show where you screwed up.
+     * @param row The row of the cell to check.
+     * @param col The column of the cell to check.
+     * @return true if this is the bomb that ended the game.
+     */
+    public boolean isExploded(int row, int col) {
+        return explodedIndex == paddedIndex(row, col);
+    }
+
+    /**
+     * The number of bombs touching a cell (including diagonally).
+     * @param row The row of the cell to check.
+     * @param col The column of the cell to check.
+     * @return A number from 0 to 8.
+     */
+    public int getNeighborMines(int row, int col) {
+        return grid[paddedIndex(row, col)] & NEIGHBOR_MASK;
+    }
+
+    /**
+     * Find where all the bombs are, so the board can be saved or recorded.
+     * @return The cell index (row * width + col) of every bomb, from top-left to bottom-right.
+     */
+    public int[] getBombCellIndices() {
+        int[] bombs = new int[totalBombs];
+        int found = 0;
+        for (int row = 0; row < height; row++) {
+            int index = paddedIndex(row, 0);
+            for (int col = 0; col < width; col++, index++) {
+                if ((grid[index] & BOMB) != 0) {
+                    bombs[found++] = row * width + col;
+                }
+            }
+        }
+        return bombs;
+    }
+
+    /**
+     * Which cells have bombs, as one bit per cell (bit row * width + col). Used to save the game.
+     * @return The bomb cells.
+     */
+    public BitSet getBombCells() {
+        return getCellsWith(BOMB);
+    }
+
+    /**
+     * Which cells have been revealed, as one bit per cell (bit row * width + col).
+     * @return The revealed cells.
+     */
+    public BitSet getRevealedCells() {
+        return getCellsWith(REVEALED);
+    }
+
+    /**
+     * Which cells are flagged, as one bit per cell (bit row * width + col).
+     * @return The flagged cells.
+     */
+    public BitSet getFlaggedCells() {
+        return getCellsWith(FLAGGED);
+    }
+
+    private BitSet getCellsWith(int flag) {
+        int shift = Integer.numberOfTrailingZeros(flag);
+        long[] words = new long[(width * height + 63) >>> 6];
+        long word = 0;
+        int cell = 0;
         for (int row = 0; row < height; row++) {
-            for (int col = 0; col < width; col++) {
-                Cell cell = cellGrid[row][col];
-                if (!cell.isRevealed()) {
-                    Button cellButton = cell.getCellButton();
-                    uiBuilder.updateCellAppearance(cellButton, cell, true);
-                    cell.setIsRevealed(true);
+            int index = paddedIndex(row, 0);
+            for (int col = 0; col < width; col++, index++, cell++) {
+                word |= (long) ((grid[index] >>> shift) & 1) << cell;
+                if ((cell & 63) == 63) {
+                    words[cell >>> 6] = word;
+                    word = 0;
                 }
             }
         }
+        if ((cell & 63) != 0) {
+            words[cell >>> 6] = word;
+        }
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * Put a saved game back the way it was: the bombs, which cells are revealed and flagged,
+     * and the time on the clock. Neighbor counts, flags remaining and cells left to reveal are
+     * all worked out again from those. Use this on a new game instead of initializeBoard().
+     * Only games that were still being played can be restored.
+     * @param bombs The cells with bombs (bit row * width + col).
+     * @param revealed The cells that were revealed.
+     * @param flagged The cells that were flagged.
+     * @param elapsedNanos How long the game had been going, in nanoseconds.
+     */
+    public void restore(BitSet bombs, BitSet revealed, BitSet flagged, long elapsedNanos) {
+        int totalCells = width * height;
+        if (bombs.cardinality() != totalBombs) {
+            throw new IllegalArgumentException(String.format(
+                    "Expected %d bombs but got %d", totalBombs, bombs.cardinality()));
+        }
+        if (bombs.length() > totalCells || revealed.length() > totalCells || flagged.length() > totalCells) {
+            throw new IllegalArgumentException("Saved cells are outside the board");
+        }
+        if (revealed.intersects(bombs)) {
+            throw new IllegalArgumentException("A bomb was revealed, so the game is already over");
+        }
+        if (revealed.intersects(flagged) || flagged.cardinality() > totalBombs) {
+            throw new IllegalArgumentException("Flags don't fit the board");
+        }
+        if (revealed.cardinality() == numReveals) {
+            throw new IllegalArgumentException("Every safe cell was revealed, so the game is already over");
+        }
+        for (int cell = bombs.nextSetBit(0); cell >= 0; cell = bombs.nextSetBit(cell + 1)) {
+            placeBomb(paddedIndex(cell));
+        }
+        for (int cell = revealed.nextSetBit(0); cell >= 0; cell = revealed.nextSetBit(cell + 1)) {
+            grid[paddedIndex(cell)] |= REVEALED;
+            numReveals--;
+        }
+        for (int cell = flagged.nextSetBit(0); cell >= 0; cell = flagged.nextSetBit(cell + 1)) {
+            grid[paddedIndex(cell)] |= FLAGGED;
+            numBombs--;
+        }
+        clock.setElapsedNanos(elapsedNanos);
+        // The saved game's reveals go in the history as where undo stops, so undoing the end of
+        // the game knows to leave them revealed.
+        changes.clear();
+        for (int cell = revealed.nextSetBit(0); cell >= 0; cell = revealed.nextSetBit(cell + 1)) {
+            changes.add(cell);
+        }
+        recordMove(MoveType.REVEAL);
+        history.setStartingPoint();
+        changes.clear();
+    }
+
+    /**
+     * Calculate the board's 3BV (Bechtel's Board Benchmark Value): the fewest clicks it takes to
+     * clear the board without flags or chords. Every opening (a connected area of zeros, along with
+     * the numbers around it) takes one click, and every number that doesn't touch an opening
+     * takes one click of its own. It's the usual way to measure how hard a board is.
+     * @return The 3BV of the board.
+     */
+    public int calculate3BV() {
+        boolean[] counted = new boolean[grid.length];
+        int[] stack = new int[width * height];
+        int clicks = 0;
+        for (int row = 0; row < height; row++) {
+            int start = paddedIndex(row, 0);
+            for (int index = start; index < start + width; index++) {
+                if (counted[index] || (grid[index] & (BOMB | NEIGHBOR_MASK)) != 0) {
+                    continue;
+                }
+                // A new opening. Mark everything one click on it would reveal.
+                clicks++;
+                int top = 0;
+                counted[index] = true;
+                stack[top++] = index;
+                while (top > 0) {
+                    int zero = stack[--top];
+                    for (int offset : neighborOffsets) {
+                        int neighbor = zero + offset;
+                        if (counted[neighbor] || (grid[neighbor] & BORDER) != 0) {
+                            continue;
+                        }
+                        counted[neighbor] = true;
+                        if ((grid[neighbor] & NEIGHBOR_MASK) == 0) {
+                            stack[top++] = neighbor;
+                        }
+                    }
+                }
+            }
+        }
+        for (int row = 0; row < height; row++) {
+            int start = paddedIndex(row, 0);
+            for (int index = start; index < start + width; index++) {
+                if (!counted[index] && (grid[index] & BOMB) == 0) {
+                    clicks++;
+                }
+            }
+        }
+        return clicks;
+    }
+
+    public int getTotalBombs() {
+        return totalBombs;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * The seed the bombs were placed with. Start a new game with the same seed and
+     * settings to get the exact same board again.
+     * @return The seed for this game.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Whether getSeed() is enough to get this exact board again. It isn't when the bombs were
+     * put in given places (no-guess boards, replays) or loaded from a saved game.
+     * @return True if the bombs were placed randomly from the seed.
+     */
+    public boolean isReproducibleFromSeed() {
+        return reproducibleFromSeed;
+    }
+
+    /**
+     * The clock for this game. It starts on the first move and stops when the game is over.
+     * @return The game's clock.
+     */
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * The number shown on the mine counter: total bombs minus the flags you've placed.
+     * @return The number of mines that have not been flagged yet.
+     */
+    public int getMinesRemaining() {
+        return numBombs;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean didYouWin() {
+        return youWon;
     }
 }
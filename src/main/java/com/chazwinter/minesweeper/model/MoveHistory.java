@@ -0,0 +1,108 @@
+package com.chazwinter.minesweeper.model;
+
+import java.util.Arrays;
+
+/**
+ * Every move made in a game, for undo and redo. A move only keeps the cells it changed (the
+ * cells a reveal, flood fill or chord opened up, or the one cell a flag went on or off), never a
+ * copy of the board. All the moves share one int array, one after another, so the whole history
+ * costs 4 bytes per changed cell plus a few bytes per move. Since a cell can only be revealed
+ * once, even a game on a million-cell board stays at a few megabytes.
+ *
+ * Undone moves stay around until a new move is made, so they can be redone.
+ */
+class MoveHistory {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] cells = new int[INITIAL_CAPACITY];
+    /* Move i's cells are cells[moveEnds[i - 1]] up to (not including) cells[moveEnds[i]]. */
+    private int[] moveEnds = new int[INITIAL_CAPACITY];
+    private MoveType[] moveTypes = new MoveType[INITIAL_CAPACITY];
+    private int appliedMoves;   // Moves that are on the board now.
+    private int storedMoves;    // Applied moves, plus undone moves that can still be redone.
+    private int firstUndoableMove;
+
+    /**
+     * Remember a move that was just made. Anything that was undone can't be redone after this.
+     * @param moveType What kind of move it was.
+     * @param changes The cells the move changed.
+     */
+    void record(MoveType moveType, ChangeSet changes) {
+        storedMoves = appliedMoves;
+        if (storedMoves == moveEnds.length) {
+            moveEnds = Arrays.copyOf(moveEnds, storedMoves * 2);
+            moveTypes = Arrays.copyOf(moveTypes, storedMoves * 2);
+        }
+        int start = getStart(storedMoves);
+        int end = start + changes.size();
+        if (end > cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(end, cells.length * 2));
+        }
+        for (int i = 0; i < changes.size(); i++) {
+            cells[start + i] = changes.getIndex(i);
+        }
+        moveEnds[storedMoves] = end;
+        moveTypes[storedMoves] = moveType;
+        appliedMoves = ++storedMoves;
+    }
+
+    /**
+     * Make every move recorded so far permanent, so undo stops here. Used for the cells that were
+     * already revealed when a saved game was loaded.
+     */
+    void setStartingPoint() {
+        firstUndoableMove = appliedMoves;
+    }
+
+    boolean canUndo() {
+        return appliedMoves > firstUndoableMove;
+    }
+
+    boolean canRedo() {
+        return appliedMoves < storedMoves;
+    }
+
+    /**
+     * Step back one move.
+     * @return The move that was undone (for getType(), getStart() and getEnd()).
+     */
+    int undo() {
+        return --appliedMoves;
+    }
+
+    /**
+     * Step forward one move.
+     * @return The move that was redone.
+     */
+    int redo() {
+        return appliedMoves++;
+    }
+
+    MoveType getType(int move) {
+        return moveTypes[move];
+    }
+
+    /**
+     * @param move The move.
+     * @return Where the move's cells start (for getCell()).
+     */
+    int getStart(int move) {
+        return move == 0 ? 0 : moveEnds[move - 1];
+    }
+
+    /**
+     * @param move The move.
+     * @return Where the move's cells end (not included).
+     */
+    int getEnd(int move) {
+        return moveEnds[move];
+    }
+
+    /**
+     * @param position A position between a move's getStart() and getEnd().
+     * @return The cell index (row * width + col) stored there.
+     */
+    int getCell(int position) {
+        return cells[position];
+    }
+}
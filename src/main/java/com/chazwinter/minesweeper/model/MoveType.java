@@ -0,0 +1,35 @@
+package com.chazwinter.minesweeper.model;
+
+/**
+ * The kinds of moves a player can make. The codes are what gets written to game recordings,
+ * so don't change them once they're in use.
+ */
+public enum MoveType {
+    REVEAL(0),
+    FLAG(1),
+    CHORD(2);
+
+    private final int code;
+
+    MoveType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Look up a MoveType from the code stored in a recording.
+     * @param code The stored code.
+     * @return The matching MoveType.
+     */
+    public static MoveType fromCode(int code) {
+        for (MoveType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown move type code: " + code);
+    }
+}
@@ -0,0 +1,19 @@
+package com.chazwinter.minesweeper.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Everything the game records to Java Flight Recorder has the board size on it, so a slow event
+ * can be told apart from one that was just on a huge board.
+ * See minesweeper.jfc for which events are turned on, and start the app with --jfr=file.jfr to record them.
+ */
+@Category("Minesweeper")
+public abstract class BoardEvent extends Event {
+    @Label("Height")
+    public int height;
+
+    @Label("Width")
+    public int width;
+}
@@ -0,0 +1,15 @@
+package com.chazwinter.minesweeper.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.chazwinter.minesweeper.BoardGeneration")
+@Label("Board Generation")
+@Description("Placing the bombs on a new board and counting their neighbors")
+@Category({"Minesweeper", "Engine"})
+public class BoardGenerationEvent extends BoardEvent {
+    @Label("Bombs")
+    public int bombs;
+}
@@ -0,0 +1,15 @@
+package com.chazwinter.minesweeper.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.chazwinter.minesweeper.Chord")
+@Label("Chord")
+@Description("Revealing every unflagged neighbor of a cell (including any flood fills it starts)")
+@Category({"Minesweeper", "Engine"})
+public class ChordEvent extends BoardEvent {
+    @Label("Cells Revealed")
+    public int cellsRevealed;
+}
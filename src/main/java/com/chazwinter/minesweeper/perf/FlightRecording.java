@@ -0,0 +1,52 @@
+package com.chazwinter.minesweeper.perf;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Starts a Java Flight Recorder recording with the JDK's default settings plus the game's own
+ * events (from the bundled minesweeper.jfc). Open the file in JDK Mission Control to see the
+ * game's work lined up with GC pauses and everything else the JVM was doing.
+ */
+public class FlightRecording {
+    private static final String SETTINGS_PATH = "/com/chazwinter/minesweeper/jfr/minesweeper.jfc";
+
+    private final Recording recording;
+
+    /**
+     * Start recording right away.
+     * @param destination The file to write the recording to when it's stopped (or the app exits).
+     * @throws IOException If the settings can't be read or the file can't be used.
+     * @throws ParseException If the bundled settings file is broken.
+     */
+    public FlightRecording(Path destination) throws IOException, ParseException {
+        Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+        try (Reader reader = new InputStreamReader(
+                FlightRecording.class.getResourceAsStream(SETTINGS_PATH), StandardCharsets.UTF_8)) {
+            settings.putAll(Configuration.create(reader).getSettings());
+        }
+        recording = new Recording(settings);
+        recording.setName("Minesweeper");
+        recording.setDestination(destination);
+        recording.setDumpOnExit(true);
+        recording.start();
+        System.out.println("Recording JFR events to " + destination.toAbsolutePath());
+    }
+
+    /**
+     * Stop recording and write the file.
+     */
+    public void stop() {
+        recording.stop();
+        recording.close();
+    }
+}
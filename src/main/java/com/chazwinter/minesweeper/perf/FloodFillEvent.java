@@ -0,0 +1,15 @@
+package com.chazwinter.minesweeper.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.chazwinter.minesweeper.FloodFill")
+@Label("Flood Fill")
+@Description("Opening up an area with no bombs around it")
+@Category({"Minesweeper", "Engine"})
+public class FloodFillEvent extends BoardEvent {
+    @Label("Cells Revealed")
+    public int cellsRevealed;
+}
@@ -0,0 +1,18 @@
+package com.chazwinter.minesweeper.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.chazwinter.minesweeper.GameOverReveal")
+@Label("Game Over Reveal Frame")
+@Description("One frame's worth of drawing the board at the end of a game")
+@Category({"Minesweeper", "Rendering"})
+public class GameOverRevealEvent extends BoardEvent {
+    @Label("Cells Drawn")
+    public int cellsDrawn;
+
+    @Label("Cells Remaining")
+    public int cellsRemaining;
+}
@@ -0,0 +1,18 @@
+package com.chazwinter.minesweeper.perf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.chazwinter.minesweeper.GridRebuild")
+@Label("Grid Rebuild")
+@Description("Starting a new game: getting a board and resetting the board view")
+@Category({"Minesweeper", "Rendering"})
+public class GridRebuildEvent extends BoardEvent {
+    @Label("Cells")
+    public int cells;
+
+    @Label("Bombs")
+    public int bombs;
+}
@@ -0,0 +1,86 @@
+package com.chazwinter.minesweeper.perf;
+
+/**
+ * Counts how many times each latency happened, in buckets that get wider as the latency grows
+ * (every power of 2 is split into 8 buckets, so any value is off by at most 12.5%).
+ * Recording is just an array increment, with no allocation, so it's cheap enough to do on every
+ * click. Not thread-safe: use it from one thread.
+ */
+public class LatencyHistogram {
+    /* Each power of 2 is split into 2^SUB_BUCKET_BITS buckets. */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Count one latency.
+     * @param nanos How long it took, in nanoseconds. Negative values count as 0.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        counts[bucketOf(nanos)]++;
+        totalCount++;
+        min = Math.min(min, nanos);
+        max = Math.max(max, nanos);
+    }
+
+    /**
+     * Find the latency that the given fraction of recorded values are at or below.
+     * @param percentile Between 0 and 100, for example 99 for p99.
+     * @return The latency in nanoseconds (the top of its bucket, but never more than the max),
+     *         or 0 if nothing has been recorded.
+     */
+    public long getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(totalCount * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= target) {
+                return Math.min(max, bucketUpperBound(bucket));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Values below SUB_BUCKETS get a bucket each. Above that, the bucket is picked by the highest
+     * bit (which power of 2) and the next SUB_BUCKET_BITS bits (where in that power of 2).
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> exponent) - SUB_BUCKETS;
+        return (exponent + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+}
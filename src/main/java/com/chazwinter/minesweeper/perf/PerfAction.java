@@ -0,0 +1,14 @@
+package com.chazwinter.minesweeper.perf;
+
+/**
+ * The kinds of things the player does that get their own latency histogram.
+ * A reveal that opens up more than one cell counts as a FLOOD_FILL instead of a REVEAL,
+ * since it has a lot more to draw.
+ */
+public enum PerfAction {
+    REVEAL,
+    FLAG,
+    CHORD,
+    FLOOD_FILL,
+    RESET
+}
@@ -0,0 +1,114 @@
+package com.chazwinter.minesweeper.perf;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Measures how long it takes from the player clicking to the result being on screen.
+ * The clock starts when the mouse button is released (inputReceived()), the action is filled in
+ * once the game knows what the click did (setAction()), and the clock stops on the next frame
+ * (frameRendered()). Clicks that don't do anything are dropped.
+ * It also counts frames, for the FPS on the performance overlay.
+ * Everything here is meant to be called from the JavaFX Application Thread.
+ */
+public class PerfMonitor {
+    private final Map<PerfAction, LatencyHistogram> histograms = new EnumMap<>(PerfAction.class);
+    private long pendingStartNanos = -1;
+    private PerfAction pendingAction;
+    private long frameCount;
+
+    public PerfMonitor() {
+        for (PerfAction action : PerfAction.values()) {
+            histograms.put(action, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * A mouse button was just released. It might turn into an action, or it might not.
+     */
+    public void inputReceived() {
+        pendingStartNanos = System.nanoTime();
+        pendingAction = null;
+    }
+
+    /**
+     * Start timing something that doesn't come from a mouse event on the board (like New Game).
+     * @param action What's being timed.
+     */
+    public void actionStarted(PerfAction action) {
+        pendingStartNanos = System.nanoTime();
+        pendingAction = action;
+    }
+
+    /**
+     * Stop timing whatever is being timed, without recording it.
+     */
+    public void cancel() {
+        pendingStartNanos = -1;
+        pendingAction = null;
+    }
+
+    /**
+     * Say what the current input turned out to do. A later call replaces an earlier one, so a
+     * reveal can be upgraded to a FLOOD_FILL once we know how many cells it opened.
+     * @param action What the input did.
+     */
+    public void setAction(PerfAction action) {
+        if (pendingStartNanos >= 0) {
+            pendingAction = action;
+        }
+    }
+
+    /**
+     * @return The action being timed right now, or null if there isn't one.
+     */
+    public PerfAction getPendingAction() {
+        return pendingStartNanos >= 0 ? pendingAction : null;
+    }
+
+    /**
+     * A frame was just drawn. Whatever action was waiting for it is finished now.
+     */
+    public void frameRendered() {
+        frameCount++;
+        if (pendingStartNanos >= 0 && pendingAction != null) {
+            histograms.get(pendingAction).record(System.nanoTime() - pendingStartNanos);
+        }
+        pendingStartNanos = -1;
+        pendingAction = null;
+    }
+
+    /**
+     * @return How many frames have been drawn so far.
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public LatencyHistogram getHistogram(PerfAction action) {
+        return histograms.get(action);
+    }
+
+    /**
+     * Write every histogram's summary to a CSV file (times in microseconds), so runs from
+     * different versions can be compared.
+     * @param file The file to write. It is replaced if it already exists.
+     * @throws IOException If the file can't be written.
+     */
+    public void writeTo(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("action,count,min_us,p50_us,p90_us,p99_us,p999_us,max_us");
+            for (PerfAction action : PerfAction.values()) {
+                LatencyHistogram histogram = histograms.get(action);
+                out.printf("%s,%d,%d,%d,%d,%d,%d,%d%n", action.name().toLowerCase(), histogram.getCount(),
+                        histogram.getMin() / 1000, histogram.getPercentile(50) / 1000,
+                        histogram.getPercentile(90) / 1000, histogram.getPercentile(99) / 1000,
+                        histogram.getPercentile(99.9) / 1000, histogram.getMax() / 1000);
+            }
+        }
+    }
+}
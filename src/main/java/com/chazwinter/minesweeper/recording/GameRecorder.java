@@ -0,0 +1,175 @@
+package com.chazwinter.minesweeper.recording;
+
+import com.chazwinter.minesweeper.model.GameListener;
+import com.chazwinter.minesweeper.model.Minesweeper;
+import com.chazwinter.minesweeper.model.MoveType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every move of a game to a compact binary file (see RecordingFormat), so the
+ * game can be replayed exactly later with the GameReplayer.
+ * Moves are encoded right away (it only takes a few bytes), but the actual file writing
+ * happens on a background thread, so recording never slows down the UI.
+ */
+public class GameRecorder implements GameListener, AutoCloseable {
+    /* One writer thread shared by every recorder, so writes for a file always happen in order. */
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "game-recorder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Minesweeper minesweeper;
+    private final Path file;
+    private long lastMoveNanos;
+    private boolean closed;
+    /* Only ever touched on the writer thread. */
+    private FileChannel channel;
+
+    /**
+     * Start recording a game. The game's board must already be initialized, because the
+     * bomb locations go into the file header.
+     * @param minesweeper The game to record.
+     * @param file The file to write the recording to. It is replaced if it already exists.
+     */
+    public GameRecorder(Minesweeper minesweeper, Path file) {
+        this.minesweeper = minesweeper;
+        this.file = file;
+        ByteBuffer header = encodeHeader(minesweeper);
+        lastMoveNanos = System.nanoTime();
+        WRITER.execute(() -> {
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                write(header);
+            } catch (IOException e) {
+                System.out.println("Couldn't start recording to " + file + ": " + e.getMessage());
+            }
+        });
+        minesweeper.addListener(this);
+    }
+
+    /**
+     * Build the file header: game settings, seed, and where the bombs are.
+     * @param minesweeper The game being recorded.
+     * @return The encoded header, ready to write.
+     */
+    private static ByteBuffer encodeHeader(Minesweeper minesweeper) {
+        int[] bombs = minesweeper.getBombCellIndices();
+        ByteBuffer header = ByteBuffer.allocate(RecordingFormat.MAGIC.length + 1
+                + RecordingFormat.MAX_VARINT_BYTES * (3 + bombs.length) + Long.BYTES);
+        header.put(RecordingFormat.MAGIC);
+        header.put((byte) RecordingFormat.VERSION);
+        RecordingFormat.writeVarLong(header, minesweeper.getHeight());
+        RecordingFormat.writeVarLong(header, minesweeper.getWidth());
+        RecordingFormat.writeVarLong(header, bombs.length);
+        header.putLong(minesweeper.getSeed());
+        int previous = 0;
+        for (int bomb : bombs) {
+            RecordingFormat.writeVarLong(header, bomb - previous);
+            previous = bomb;
+        }
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Record a move: which cell, what kind of move, and how long since the last one.
+     */
+    @Override
+    public void onMove(MoveType moveType, int row, int col) {
+        if (closed) {
+            return;
+        }
+        long now = System.nanoTime();
+        ByteBuffer record = ByteBuffer.allocate(RecordingFormat.MAX_MOVE_BYTES);
+        RecordingFormat.writeVarLong(record, (long) row * minesweeper.getWidth() + col);
+        record.put((byte) moveType.getCode());
+        RecordingFormat.writeVarLong(record, now - lastMoveNanos);
+        record.flip();
+        lastMoveNanos = now;
+        WRITER.execute(() -> write(record));
+    }
+
+    /**
+     * A recording can only be replayed forwards, so it ends at the first undo.
+     */
+    @Override
+    public void onUndo() {
+        if (!closed) {
+            System.out.println("Undo can't be replayed, so the recording of this game stops here: " + file);
+            close();
+        }
+    }
+
+    /**
+     * Stop recording and close the file. Any moves already recorded still get written.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        minesweeper.removeListener(this);
+        WRITER.execute(() -> {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                System.out.println("Couldn't finish recording to " + file + ": " + e.getMessage());
+            }
+            channel = null;
+        });
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Write some bytes to the file. Runs on the writer thread.
+     * @param bytes The bytes to write.
+     */
+    private void write(ByteBuffer bytes) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            System.out.println("Recording to " + file + " failed: " + e.getMessage());
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Already broken, nothing else to do.
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Wait for everything that's been recorded so far to be written to disk.
+     * Call this before the app exits, or the last few moves could be lost.
+     */
+    public static void awaitPendingWrites() {
+        try {
+            WRITER.submit(() -> { }).get(1, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.out.println("Some recorded moves may not have been saved: " + e.getMessage());
+        }
+    }
+}
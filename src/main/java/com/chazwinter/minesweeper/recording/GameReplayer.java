@@ -0,0 +1,61 @@
+package com.chazwinter.minesweeper.recording;
+
+import com.chazwinter.minesweeper.model.Minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Headless player for game recordings. Replays each recording through the game engine at
+ * full speed (ignoring how long the player actually took), and prints how each game ended.
+ * Replaying the same recordings over and over with --repeat is a handy way to profile the engine.
+ *
+ * Usage: GameReplayer [--repeat=N] recording.msrec [more recordings...]
+ */
+public class GameReplayer {
+
+    public static void main(String[] args) throws IOException {
+        int repeat = 1;
+        List<Recording> recordings = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--repeat=")) {
+                repeat = Integer.parseInt(arg.substring("--repeat=".length()));
+            } else {
+                Path file = Path.of(arg);
+                Recording recording = Recording.read(file);
+                recordings.add(recording);
+                Minesweeper result = recording.replay();
+                System.out.printf("%s: %dx%d, %d bombs, seed %d, %d moves in %.1fs -> %s%n",
+                        file.getFileName(), recording.getHeight(), recording.getWidth(),
+                        recording.getNumBombs(), recording.getSeed(), recording.getMoveCount(),
+                        recording.getDurationNanos() / 1e9, describeResult(result));
+            }
+        }
+        if (recordings.isEmpty()) {
+            System.out.println("Usage: GameReplayer [--repeat=N] recording" + RecordingFormat.FILE_EXTENSION + " ...");
+            return;
+        }
+
+        long totalMoves = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < repeat; i++) {
+            for (Recording recording : recordings) {
+                recording.replay();
+                totalMoves += recording.getMoveCount();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Replayed %d games (%d moves) in %.3fs: %.0f games/s, %.0f moves/s%n",
+                (long) repeat * recordings.size(), totalMoves, seconds,
+                repeat * recordings.size() / seconds, totalMoves / seconds);
+    }
+
+    private static String describeResult(Minesweeper minesweeper) {
+        if (!minesweeper.isGameOver()) {
+            return "unfinished";
+        }
+        return minesweeper.didYouWin() ? "won" : "lost";
+    }
+}
@@ -0,0 +1,184 @@
+package com.chazwinter.minesweeper.recording;
+
+import com.chazwinter.minesweeper.model.GameListener;
+import com.chazwinter.minesweeper.model.Minesweeper;
+import com.chazwinter.minesweeper.model.MoveType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A game recording that has been read into memory (see RecordingFormat for the file layout).
+ * Moves are kept in plain arrays, so replaying one is about as fast as the game engine itself.
+ */
+public class Recording {
+    private final int height;
+    private final int width;
+    private final long seed;
+    private final int[] bombCellIndices;
+    private final int moveCount;
+    private final int[] moveCells;
+    private final byte[] moveTypes;
+    private final long[] moveNanos;
+
+    private Recording(int height, int width, long seed, int[] bombCellIndices,
+                      int moveCount, int[] moveCells, byte[] moveTypes, long[] moveNanos) {
+        this.height = height;
+        this.width = width;
+        this.seed = seed;
+        this.bombCellIndices = bombCellIndices;
+        this.moveCount = moveCount;
+        this.moveCells = moveCells;
+        this.moveTypes = moveTypes;
+        this.moveNanos = moveNanos;
+    }
+
+    /**
+     * Read a recording file written by the GameRecorder.
+     * @param file The file to read.
+     * @return The recording.
+     * @throws IOException If the file can't be read, or isn't a recording. Everything in it is
+     *                     checked against the board here, so replay() can trust what it gets.
+     */
+    public static Recording read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            byte[] magic = new byte[RecordingFormat.MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, RecordingFormat.MAGIC)) {
+                throw new IOException(file + " is not a game recording");
+            }
+            int version = buffer.get();
+            if (version != RecordingFormat.VERSION) {
+                throw new IOException(file + " has unsupported recording version " + version);
+            }
+            int height = RecordingFormat.readVarInt(buffer);
+            int width = RecordingFormat.readVarInt(buffer);
+            if (height <= 0 || width <= 0 || (long) height * width > Integer.MAX_VALUE) {
+                throw new IOException(file + " is corrupt: bad board size " + height + "x" + width);
+            }
+            int totalCells = height * width;
+            int numBombs = RecordingFormat.readVarInt(buffer);
+            // Every bomb takes at least 1 byte, so a bigger count can't be right (and would waste memory).
+            if (numBombs < 0 || numBombs > totalCells || numBombs > buffer.remaining()) {
+                throw new IOException(file + " is corrupt: bad bomb count " + numBombs);
+            }
+            long seed = buffer.getLong();
+            // Bombs are written in increasing order, so every gap after the first is at least 1.
+            int[] bombs = new int[numBombs];
+            long previous = 0;
+            for (int i = 0; i < numBombs; i++) {
+                int gap = RecordingFormat.readVarInt(buffer);
+                previous += gap;
+                if (gap < 0 || (i > 0 && gap == 0) || previous >= totalCells) {
+                    throw new IOException(file + " is corrupt: bad bomb cell " + previous);
+                }
+                bombs[i] = (int) previous;
+            }
+
+            // Every move takes at least 3 bytes, which gives an upper limit on how many there are.
+            int maxMoves = buffer.remaining() / 3;
+            int[] cells = new int[maxMoves];
+            byte[] types = new byte[maxMoves];
+            long[] nanos = new long[maxMoves];
+            int count = 0;
+            while (buffer.hasRemaining()) {
+                if (count == maxMoves) {
+                    throw new IOException(file + " is corrupt: the last move is cut short");
+                }
+                cells[count] = RecordingFormat.readVarInt(buffer);
+                types[count] = buffer.get();
+                nanos[count] = RecordingFormat.readVarLong(buffer);
+                if (cells[count] < 0 || cells[count] >= totalCells) {
+                    throw new IOException(file + " is corrupt: move " + count + " is off the board");
+                }
+                if (!isMoveType(types[count])) {
+                    throw new IOException(file + " is corrupt: move " + count + " has unknown type " + types[count]);
+                }
+                if (nanos[count] < 0) {
+                    throw new IOException(file + " is corrupt: move " + count + " goes back in time");
+                }
+                count++;
+            }
+            return new Recording(height, width, seed, bombs, count, cells, types, nanos);
+        } catch (RuntimeException e) {
+            // Truncated or garbled files show up as buffer underflows and bad numbers.
+            throw new IOException(file + " is corrupt: " + e, e);
+        }
+    }
+
+    private static boolean isMoveType(int code) {
+        for (MoveType type : MoveType.values()) {
+            if (type.getCode() == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Play the recorded game again, as fast as possible.
+     * @return The game, in the state it was in after the last recorded move.
+     */
+    public Minesweeper replay() {
+        return replay(null);
+    }
+
+    /**
+     * Play the recorded game again, as fast as possible, while something listens in.
+     * @param listener Something to notify about the replayed moves (may be null).
+     * @return The game, in the state it was in after the last recorded move.
+     */
+    public Minesweeper replay(GameListener listener) {
+        Minesweeper minesweeper = new Minesweeper(height, width, bombCellIndices.length, seed);
+        minesweeper.initializeBoard(bombCellIndices);
+        if (listener != null) {
+            minesweeper.addListener(listener);
+        }
+        for (int i = 0; i < moveCount; i++) {
+            int row = moveCells[i] / width;
+            int col = moveCells[i] % width;
+            switch (MoveType.fromCode(moveTypes[i])) {
+                case REVEAL -> minesweeper.reveal(row, col);
+                case FLAG -> minesweeper.toggleFlag(row, col);
+                case CHORD -> minesweeper.chord(row, col);
+            }
+        }
+        return minesweeper;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getNumBombs() {
+        return bombCellIndices.length;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * How long the player took to make the recorded moves.
+     * @return The total time from the start of the recording to the last move, in nanoseconds.
+     */
+    public long getDurationNanos() {
+        long total = 0;
+        for (int i = 0; i < moveCount; i++) {
+            total += moveNanos[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,77 @@
+package com.chazwinter.minesweeper.recording;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The layout of a game recording file, shared by the GameRecorder (which writes them)
+ * and the GameReplayer (which reads them back).
+ *
+ * Header:
+ *   "MSRC" magic bytes, 1 version byte,
+ *   varint height, varint width, varint number of bombs, 8-byte seed,
+ *   varint bomb cell indices (the first one as-is, then the gap from the one before).
+ * Then one record per move until the end of the file:
+ *   varint cell index (row * width + col), 1 byte MoveType code,
+ *   varint nanoseconds since the move before it (or since the recording started).
+ *
+ * Varints use 7 bits per byte, with the high bit set on every byte except the last,
+ * so small numbers only take one byte.
+ */
+public final class RecordingFormat {
+    public static final byte[] MAGIC = {'M', 'S', 'R', 'C'};
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = ".msrec";
+    /* The most bytes a single varint long can take. */
+    public static final int MAX_VARINT_BYTES = 10;
+    /* The most bytes a single move record can take (index + type + time). */
+    public static final int MAX_MOVE_BYTES = MAX_VARINT_BYTES * 2 + 1;
+
+    private RecordingFormat() {
+    }
+
+    /**
+     * Write a non-negative number as a varint.
+     * @param buffer Where to write it.
+     * @param value The number to write.
+     */
+    public static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Read a varint written by writeVarLong().
+     * @param buffer Where to read it from.
+     * @return The number that was written.
+     */
+    public static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift >= 64) {
+                throw new IllegalArgumentException("Corrupt recording: varint is too long");
+            }
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Read a varint that has to fit in an int.
+     * @param buffer Where to read it from.
+     * @return The number that was written.
+     */
+    public static int readVarInt(ByteBuffer buffer) {
+        long value = readVarLong(buffer);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Corrupt recording: number is too big: " + value);
+        }
+        return (int) value;
+    }
+}
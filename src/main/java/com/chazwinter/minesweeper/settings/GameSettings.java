@@ -10,6 +10,12 @@ public class GameSettings {
     private int height = 10;    // Default setting on game start
     private int width = 10;     // Default setting on game start
     private int numMines = 15;  // Default setting on game start
+    private boolean autoFlagAndChord = false;
+    private boolean noGuess = false;
+    private long noGuessBudgetMillis = 1000;    // How long to spend building a no-guess board (looking, then repairing)
+
+    private final double topButtonGroupWidth = 350;
+    private final double topButtonGroupHeight = 92;
 
     private final GameSettingsValidator validator;
     private final Runnable onSettingsApplied;
@@ -75,8 +81,6 @@ public class GameSettings {
      * @return An array containing the minimum {width, height} required for the game window.
      */
     public double[] calculateMinGameDimensions() {
-        double topButtonGroupWidth = 350;
-        double topButtonGroupHeight = 92;
         double minWidth = Math.max(
                 width * UIProperties.CELL_SIZE + UIProperties.BOX_SPACING + UIProperties.PADDING * 4,
                 topButtonGroupWidth);
@@ -84,6 +88,15 @@ public class GameSettings {
         return new double[] {minWidth, minHeight};
     }
 
+    /**
+     * Calculate the smallest the window can get when the board is too big to fit on screen
+     * and has to scroll: just enough room for the top row of buttons and a few cells.
+     * @return An array containing the smallest {width, height} for the game window.
+     */
+    public double[] calculateMinWindowDimensions() {
+        return new double[] {topButtonGroupWidth, topButtonGroupHeight + UIProperties.CELL_SIZE * 5};
+    }
+
     public int getHeight() {
         return height;
     }
@@ -112,6 +125,30 @@ public class GameSettings {
         this.numMines = numMines;
     }
 
+    public boolean isAutoFlagAndChord() {
+        return autoFlagAndChord;
+    }
+
+    public void setAutoFlagAndChord(boolean autoFlagAndChord) {
+        this.autoFlagAndChord = autoFlagAndChord;
+    }
+
+    public boolean isNoGuess() {
+        return noGuess;
+    }
+
+    public void setNoGuess(boolean noGuess) {
+        this.noGuess = noGuess;
+    }
+
+    public long getNoGuessBudgetMillis() {
+        return noGuessBudgetMillis;
+    }
+
+    public void setNoGuessBudgetMillis(long noGuessBudgetMillis) {
+        this.noGuessBudgetMillis = noGuessBudgetMillis;
+    }
+
     public GameSettingsValidator getValidator() {
         return validator;
     }
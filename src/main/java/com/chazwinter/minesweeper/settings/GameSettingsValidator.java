@@ -9,10 +9,9 @@ public class GameSettingsValidator {
     private int mines;
 
     private final int minGridSize = 5;
-    private final int maxGridSize = 30;
+    private int maxGridSize = 30;
     private final int minMinesPercentage = 5;
     private final int maxMinesPercentage = 35;
-    private final String minMaxGridText = String.format("(min: %d  max %d)", minGridSize, maxGridSize);
     private final Function<Integer, Integer> minMaxMinesLimit = x -> height * width * x / 100;
     private final Predicate<Integer> minMaxMinesLimitTest = x ->
             x >= minMaxMinesLimit.apply(minMinesPercentage) && x <= minMaxMinesLimit.apply(maxMinesPercentage);
@@ -93,7 +92,16 @@ public class GameSettingsValidator {
         return maxGridSize;
     }
 
+    /**
+     * Change the biggest allowed grid size. The Button board gets slow past 30x30,
+     * but the Canvas board can handle much bigger boards.
+     * @param maxGridSize The new maximum height and width.
+     */
+    public void setMaxGridSize(int maxGridSize) {
+        this.maxGridSize = maxGridSize;
+    }
+
     public String getMinMaxGridText() {
-        return minMaxGridText;
+        return String.format("(min: %d  max %d)", minGridSize, maxGridSize);
     }
 }
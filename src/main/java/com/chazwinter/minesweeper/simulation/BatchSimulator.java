@@ -0,0 +1,123 @@
+package com.chazwinter.minesweeper.simulation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plays lots of games without any UI, on every core, to see how hard different settings are.
+ * Each game's result (won or lost, moves, 3BV, time) goes to a CSV file, and the overall win
+ * rate and throughput are printed at the end.
+ *
+ * Usage: BatchSimulator [--height=9] [--width=9] [--mines=10] [--games=1000000] [--seed=0]
+ *                       [--policy=random|solver|probability] [--threads=N] [--out=simulation.csv]
+ * The games use seeds seed, seed + 1, ... seed + games - 1, so a run can be repeated, or split up.
+ */
+public class BatchSimulator {
+    /* Games per task. Small enough for the pool to balance the work, big enough to write in one go. */
+    private static final int CHUNK_SIZE = 4096;
+
+    private final GameSimulator simulator;
+    private final Writer out;
+    private final LongAdder wins = new LongAdder();
+
+    private BatchSimulator(GameSimulator simulator, Writer out) {
+        this.simulator = simulator;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int height = Integer.parseInt(options.getOrDefault("height", "9"));
+        int width = Integer.parseInt(options.getOrDefault("width", "9"));
+        int mines = Integer.parseInt(options.getOrDefault("mines", "10"));
+        long games = Long.parseLong(options.getOrDefault("games", "1000000"));
+        long firstSeed = Long.parseLong(options.getOrDefault("seed", "0"));
+        PlayPolicy policy = PlayPolicy.fromString(options.getOrDefault("policy", "solver"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        Path outFile = Path.of(options.getOrDefault("out", "simulation.csv"));
+
+        System.out.printf("Simulating %d games of %dx%d with %d mines (policy %s, %d threads) -> %s%n",
+                games, height, width, mines, policy, threads, outFile);
+        GameSimulator simulator = new GameSimulator(height, width, mines, policy);
+        long start = System.nanoTime();
+        long wins;
+        try (BufferedWriter writer = Files.newBufferedWriter(outFile)) {
+            writer.write(GameSimulator.CSV_HEADER);
+            writer.newLine();
+            BatchSimulator batch = new BatchSimulator(simulator, writer);
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(batch.new Chunk(firstSeed, firstSeed + games));
+            } finally {
+                pool.shutdown();
+            }
+            wins = batch.wins.sum();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Won %d of %d games (%.2f%%) in %.2fs: %.0f games/s%n",
+                wins, games, 100.0 * wins / games, seconds, games / seconds);
+    }
+
+    /**
+     * Options look like --name=value.
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Options look like --name=value, not " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    /**
+     * A range of seeds to play. Big ranges are split in half until they're one chunk,
+     * and idle threads steal the halves that haven't been started yet.
+     */
+    private class Chunk extends RecursiveAction {
+        private final long fromSeed;
+        private final long toSeed;
+
+        Chunk(long fromSeed, long toSeed) {
+            this.fromSeed = fromSeed;
+            this.toSeed = toSeed;
+        }
+
+        @Override
+        protected void compute() {
+            if (toSeed - fromSeed > CHUNK_SIZE) {
+                long middle = fromSeed + (toSeed - fromSeed) / 2;
+                invokeAll(new Chunk(fromSeed, middle), new Chunk(middle, toSeed));
+                return;
+            }
+            StringBuilder csv = new StringBuilder((int) (toSeed - fromSeed) * 32);
+            int chunkWins = 0;
+            for (long seed = fromSeed; seed < toSeed; seed++) {
+                if (simulator.play(seed, csv)) {
+                    chunkWins++;
+                }
+            }
+            wins.add(chunkWins);
+            try {
+                synchronized (out) {
+                    out.append(csv);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
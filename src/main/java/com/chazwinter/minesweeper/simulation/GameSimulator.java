@@ -0,0 +1,81 @@
+package com.chazwinter.minesweeper.simulation;
+
+import com.chazwinter.minesweeper.model.Minesweeper;
+import com.chazwinter.minesweeper.solver.DeductionSolver;
+import com.chazwinter.minesweeper.solver.ProbabilityEngine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays one game without any UI, from start to finish, using a PlayPolicy.
+ * Everything is decided by the seed: the board, and every guess the player makes,
+ * so any game can be played again exactly by running the same seed.
+ */
+public class GameSimulator {
+    /* How long the PROBABILITY policy may think about each guess. */
+    private static final long PROBABILITY_BUDGET_MILLIS = 50;
+
+    private final int height;
+    private final int width;
+    private final int numBombs;
+    private final PlayPolicy policy;
+
+    public GameSimulator(int height, int width, int numBombs, PlayPolicy policy) {
+        this.height = height;
+        this.width = width;
+        this.numBombs = numBombs;
+        this.policy = policy;
+    }
+
+    /**
+     * Play a game, and write how it went as one line of CSV (see CSV_HEADER).
+     * @param seed The game's seed.
+     * @param csv Where to write the result.
+     * @return True if the game was won.
+     */
+    public boolean play(long seed, StringBuilder csv) {
+        long start = System.nanoTime();
+        Minesweeper minesweeper = new Minesweeper(height, width, numBombs, seed);
+        minesweeper.initializeBoard();
+        // A different stream from the one that placed the bombs, or the guesses would follow the bombs.
+        SplittableRandom random = new SplittableRandom(~seed);
+        DeductionSolver solver = policy == PlayPolicy.RANDOM ? null : new DeductionSolver(minesweeper);
+        int moves = 0;
+        while (!minesweeper.isGameOver()) {
+            int cell = solver != null ? solver.findSafeCell() : -1;
+            if (cell < 0) {
+                cell = guess(minesweeper, solver, random);
+            }
+            minesweeper.reveal(cell / width, cell % width);
+            moves++;
+        }
+        long nanos = System.nanoTime() - start;
+        boolean won = minesweeper.didYouWin();
+        csv.append(seed).append(',')
+                .append(won ? 1 : 0).append(',')
+                .append(moves).append(',')
+                .append(minesweeper.calculate3BV()).append(',')
+                .append(nanos).append('\n');
+        return won;
+    }
+
+    public static final String CSV_HEADER = "seed,won,moves,3bv,nanos";
+
+    /**
+     * Pick a cell to reveal when there's nothing certain to do.
+     */
+    private int guess(Minesweeper minesweeper, DeductionSolver solver, SplittableRandom random) {
+        if (policy == PlayPolicy.PROBABILITY) {
+            return ProbabilityEngine.calculate(minesweeper, PROBABILITY_BUDGET_MILLIS).getSafestCell();
+        }
+        // Random hidden cell. Known mines are skipped, since even a random player wouldn't click those.
+        while (true) {
+            int cell = random.nextInt(height * width);
+            int row = cell / width;
+            int col = cell % width;
+            if (!minesweeper.isRevealed(row, col) && (solver == null || !solver.isKnownMine(row, col))) {
+                return cell;
+            }
+        }
+    }
+}
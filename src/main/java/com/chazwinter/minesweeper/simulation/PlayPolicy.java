@@ -0,0 +1,28 @@
+package com.chazwinter.minesweeper.simulation;
+
+/**
+ * How a simulated player picks its moves.
+ */
+public enum PlayPolicy {
+    /* Clicks hidden cells at random. The baseline: how much does luck alone get you? */
+    RANDOM,
+    /* Makes every move the DeductionSolver is sure about, and guesses at random when it's stuck. */
+    SOLVER,
+    /* Like SOLVER, but guesses the cell the ProbabilityEngine says is least likely to be a mine. Much slower. */
+    PROBABILITY;
+
+    /**
+     * Find the policy with the given name (not case sensitive).
+     * @param name The name of the policy.
+     * @return The policy.
+     * @throws IllegalArgumentException If there's no policy with that name.
+     */
+    public static PlayPolicy fromString(String name) {
+        for (PlayPolicy policy : values()) {
+            if (policy.name().equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown play policy: " + name);
+    }
+}
@@ -0,0 +1,499 @@
+package com.chazwinter.minesweeper.solver;
+
+import com.chazwinter.minesweeper.model.ChangeSet;
+import com.chazwinter.minesweeper.model.GameListener;
+import com.chazwinter.minesweeper.model.Minesweeper;
+import com.chazwinter.minesweeper.model.MoveType;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Figures out which hidden cells are certainly safe and which are certainly mines, using only
+ * what the player can see: the numbers on revealed cells. Flags are NOT trusted, because the
+ * player might have put them in the wrong place. The solver keeps track of its own mines.
+ *
+ * Two rules are used:
+ * - Single cell: if a number already touches all of its mines, the rest of its hidden neighbors
+ *   are safe. If it has exactly as many hidden neighbors as missing mines, they're all mines.
+ * - Pairs: for two nearby numbers A and B, if A needs so many more mines than B that the cells
+ *   only A touches have to be full of mines, then those cells are mines and the cells only B
+ *   touches are safe. (This covers the classic "subset" rule too.)
+ *
+ * Once every mine has been found, all the other hidden cells are safe too.
+ *
+ * The solver is incremental. It listens to the game, and after each move it only re-checks the
+ * numbers next to cells that changed, and then the numbers next to anything it learns, until
+ * nothing new turns up. That keeps the work per move tiny, even on huge boards.
+ *
+ * Memory is about 2 bytes per cell (the numbers and what's known about each cell), plus lists
+ * that only hold what hasn't been used yet: the numbers waiting to be checked, the safe cells
+ * waiting to be handed out as hints, and the cells waiting for an auto move.
+ */
+public class DeductionSolver implements GameListener {
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINE = 2;
+    private static final int HIDDEN = -1;
+    /* Cells near a pair of numbers are tracked as bits in a 7x7 window centered on the first number. */
+    private static final int WINDOW = 7;
+    private static final int WINDOW_CENTER = 3;
+    /**
+     * The biggest board (in cells) that the UI runs the solver on. At about 2 bytes per cell, that's 32 MB.
+     */
+    public static final int MAX_CELLS = 16_000_000;
+
+    private final Minesweeper minesweeper;
+    private final int height;
+    private final int width;
+    private final byte[] numbers;       // The number on each revealed cell, or HIDDEN.
+    private final byte[] knowledge;     // What the solver knows about each cell.
+    private final BitSet queued;        // Which numbers are already on the work stack.
+    private final IntList workStack = new IntList();    // Revealed numbers that need to be checked again.
+    private final IntList safeCells = new IntList();    // Safe cells found, in order, that haven't been handed out yet.
+    private int safeHintIndex;
+    private int mineCount;
+    private int sweepIndex;             // How far findSafeCell() got looking at the last, everything-else-is-safe rule.
+    private boolean outOfDate;          // Set by undo. Nothing is learned again until someone asks.
+    private boolean gameOver;
+    /* Auto moves: once applyAutoMoves() has been called, new mines and new numbers are queued for it,
+        so it only looks at what changed instead of every mine on the board. */
+    private boolean autoMovesUsed;
+    private boolean applyingAutoMoves;
+    private boolean minesLeftUnflagged;     // Some mines couldn't be flagged, because the player used up the flags.
+    private final IntList autoMoveQueue = new IntList();
+
+    /**
+     * Start solving a game. The solver catches up on anything already revealed, and then
+     * keeps itself up to date as the game is played.
+     * @param minesweeper The game to solve.
+     */
+    public DeductionSolver(Minesweeper minesweeper) {
+        this.minesweeper = minesweeper;
+        this.height = minesweeper.getHeight();
+        this.width = minesweeper.getWidth();
+        int totalCells = height * width;
+        numbers = new byte[totalCells];
+        knowledge = new byte[totalCells];
+        queued = new BitSet(totalCells);
+        catchUp();
+        minesweeper.addListener(this);
+    }
+
+    /**
+     * Forget everything and learn it again from the cells that are revealed right now.
+     */
+    private void catchUp() {
+        outOfDate = false;
+        gameOver = minesweeper.isGameOver();
+        Arrays.fill(numbers, (byte) HIDDEN);
+        Arrays.fill(knowledge, UNKNOWN);
+        queued.clear();
+        workStack.clear();
+        safeCells.clear();
+        safeHintIndex = 0;
+        mineCount = 0;
+        sweepIndex = 0;
+        // The next applyAutoMoves() looks at every mine again, like the first one did.
+        autoMovesUsed = false;
+        minesLeftUnflagged = false;
+        autoMoveQueue.clear();
+        if (!gameOver) {
+            BitSet revealed = minesweeper.getRevealedCells();
+            for (int cell = revealed.nextSetBit(0); cell >= 0; cell = revealed.nextSetBit(cell + 1)) {
+                cellRevealed(cell);
+            }
+            solve();
+        }
+    }
+
+    private void catchUpIfOutOfDate() {
+        if (outOfDate) {
+            catchUp();
+        }
+    }
+
+    /**
+     * Learn from the cells that were just revealed, then work out everything that follows from them.
+     * @param changes The Cells that changed during the move.
+     */
+    @Override
+    public void onCellsChanged(ChangeSet changes) {
+        if (gameOver || outOfDate) {
+            return;
+        }
+        for (int i = 0; i < changes.size(); i++) {
+            int cell = changes.getIndex(i);
+            if (numbers[cell] == HIDDEN && minesweeper.isRevealed(changes.getRow(i), changes.getCol(i))) {
+                cellRevealed(cell);
+            }
+        }
+        solve();
+    }
+
+    @Override
+    public void onGameOver(boolean youWon) {
+        // The whole board is about to be revealed, and there's nothing left to solve.
+        gameOver = true;
+    }
+
+    /**
+     * The player flagged or unflagged a cell, which can change what the next round of auto moves
+     * should do: a mine the solver knows about may need flagging again, and the numbers around
+     * any cell may have become safe to chord.
+     */
+    @Override
+    public void onMove(MoveType moveType, int row, int col) {
+        if (moveType != MoveType.FLAG || !autoMovesUsed || applyingAutoMoves || outOfDate) {
+            return;
+        }
+        if (knowledge[row * width + col] == MINE) {
+            autoMoveQueue.add(row * width + col);   // Its numbers get queued when it's handled.
+        } else {
+            queueAutoMovesAround(row, col);
+        }
+    }
+
+    /**
+     * Cells went back to being hidden, so some of what the solver knows can't be seen any more.
+     * Start over from what's on the board, but not until the solver is asked something, so
+     * undoing many moves in a row doesn't redo the work every time.
+     */
+    @Override
+    public void onUndo() {
+        outOfDate = true;
+    }
+
+    /**
+     * Stop following the game.
+     */
+    public void detach() {
+        minesweeper.removeListener(this);
+    }
+
+    /**
+     * Find a hidden cell that is certainly safe to reveal.
+     * @return The cell index (row * width + col) of a safe cell, or -1 if there isn't one.
+     */
+    public int findSafeCell() {
+        catchUpIfOutOfDate();
+        // Cells get revealed as the game goes on, so skip past the ones that already are.
+        while (safeHintIndex < safeCells.size()) {
+            int cell = safeCells.get(safeHintIndex);
+            if (numbers[cell] == HIDDEN) {
+                return cell;
+            }
+            safeHintIndex++;
+        }
+        // Everything in the list has been handed out, so start it over instead of letting it grow.
+        safeCells.clear();
+        safeHintIndex = 0;
+        // Last rule: once every mine has been found, everything else is safe, even cells no number touches.
+        // Cells only ever get revealed (undo starts everything over), so the sweep never has to go back.
+        if (allMinesFound()) {
+            for (; sweepIndex < knowledge.length; sweepIndex++) {
+                if (knowledge[sweepIndex] == UNKNOWN) {
+                    return sweepIndex;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public boolean isKnownSafe(int row, int col) {
+        catchUpIfOutOfDate();
+        byte known = knowledge[row * width + col];
+        return known == SAFE || (known == UNKNOWN && allMinesFound());
+    }
+
+    public boolean isKnownMine(int row, int col) {
+        catchUpIfOutOfDate();
+        return knowledge[row * width + col] == MINE;
+    }
+
+    public int getKnownMineCount() {
+        catchUpIfOutOfDate();
+        return mineCount;
+    }
+
+    private boolean allMinesFound() {
+        return !gameOver && mineCount == minesweeper.getTotalBombs();
+    }
+
+    /**
+     * Make the moves the solver is sure about, for the auto-flag/auto-chord mode:
+     * flag every mine it has found, then chord every number whose flags are all real mines
+     * and complete. Chording reveals more of the board, so this repeats until nothing happens.
+     * Only the mines and numbers that are new since the last call get looked at (the first call
+     * looks at every mine found so far, and so does the first call after the player frees up flags
+     * that were blocking some mines).
+     * @return How many moves were made.
+     */
+    public int applyAutoMoves() {
+        catchUpIfOutOfDate();
+        if (!autoMovesUsed || (minesLeftUnflagged && minesweeper.getMinesRemaining() > 0)) {
+            autoMovesUsed = true;
+            minesLeftUnflagged = false;
+            for (int cell = 0; cell < knowledge.length; cell++) {
+                if (knowledge[cell] == MINE) {
+                    autoMoveQueue.add(cell);
+                }
+            }
+        }
+        applyingAutoMoves = true;
+        int moves = 0;
+        // Flagging and chording add more to the queue (through markAll() and cellRevealed()), until nothing happens.
+        while (autoMoveQueue.size() > 0 && !gameOver && !outOfDate) {
+            int cell = autoMoveQueue.removeLast();
+            int row = cell / width;
+            int col = cell % width;
+            if (knowledge[cell] == MINE) {
+                if (!minesweeper.isFlagged(row, col)) {
+                    if (minesweeper.getMinesRemaining() > 0) {
+                        minesweeper.toggleFlag(row, col);
+                        moves++;
+                    } else {
+                        minesLeftUnflagged = true;
+                    }
+                }
+                // A new flag can finish off any of the numbers around it.
+                queueAutoMovesAround(row, col);
+            } else if (isSafeToChord(row, col)) {
+                minesweeper.chord(row, col);
+                moves++;
+            }
+        }
+        applyingAutoMoves = false;
+        return moves;
+    }
+
+    /**
+     * Queue every revealed number in the 3x3 block around a cell to be tried as a chord.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    private void queueAutoMovesAround(int row, int col) {
+        for (int r = Math.max(0, row - 1); r <= Math.min(height - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(width - 1, col + 1); c++) {
+                if (numbers[r * width + c] > 0) {
+                    autoMoveQueue.add(r * width + c);
+                }
+            }
+        }
+    }
+
+    /**
+     * A number is safe to chord if its flags match its number, every one of those flags is
+     * a mine the solver knows about, and there is still something left to reveal around it.
+     * @param row The row of the number.
+     * @param col The column of the number.
+     * @return True if chording it can't blow anything up, and will actually do something.
+     */
+    private boolean isSafeToChord(int row, int col) {
+        int number = numbers[row * width + col];
+        if (number <= 0) {
+            return false;
+        }
+        int flags = 0;
+        boolean somethingToReveal = false;
+        for (int r = Math.max(0, row - 1); r <= Math.min(height - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(width - 1, col + 1); c++) {
+                int neighbor = r * width + c;
+                if (minesweeper.isFlagged(r, c)) {
+                    if (knowledge[neighbor] != MINE) {
+                        return false;
+                    }
+                    flags++;
+                } else if (numbers[neighbor] == HIDDEN) {
+                    somethingToReveal = true;
+                }
+            }
+        }
+        return flags == number && somethingToReveal;
+    }
+
+    /**
+     * Record a newly revealed cell, and queue it and the numbers around it to be checked again.
+     * @param cell The index of the revealed cell.
+     */
+    private void cellRevealed(int cell) {
+        int row = cell / width;
+        int col = cell % width;
+        numbers[cell] = (byte) minesweeper.getNeighborMines(row, col);
+        knowledge[cell] = SAFE;
+        if (autoMovesUsed && numbers[cell] > 0) {
+            autoMoveQueue.add(cell);
+        }
+        queueNumbersAround(row, col);
+    }
+
+    /**
+     * Check queued numbers until there's nothing new to learn.
+     */
+    private void solve() {
+        while (workStack.size() > 0) {
+            int cell = workStack.removeLast();
+            queued.clear(cell);
+            checkNumber(cell / width, cell % width);
+        }
+    }
+
+    /**
+     * Apply the single cell rule to one number, and if that doesn't settle it,
+     * try the pair rule against every number close enough to share hidden neighbors.
+     * @param row The row of the number.
+     * @param col The column of the number.
+     */
+    private void checkNumber(int row, int col) {
+        long unknownA = unknownNeighbors(row, col, row, col);
+        if (unknownA == 0) {
+            return;
+        }
+        int minesA = numbers[row * width + col] - knownMineNeighbors(row, col);
+        int countA = Long.bitCount(unknownA);
+        if (minesA == 0) {
+            markAll(unknownA, row, col, SAFE);
+            return;
+        }
+        if (minesA == countA) {
+            markAll(unknownA, row, col, MINE);
+            return;
+        }
+
+        for (int r = Math.max(0, row - 2); r <= Math.min(height - 1, row + 2); r++) {
+            for (int c = Math.max(0, col - 2); c <= Math.min(width - 1, col + 2); c++) {
+                if (numbers[r * width + c] <= 0 || (r == row && c == col)) {
+                    continue;
+                }
+                long unknownB = unknownNeighbors(r, c, row, col);
+                if (unknownB == 0 || (unknownA & unknownB) == 0) {
+                    continue;
+                }
+                int minesB = numbers[r * width + c] - knownMineNeighbors(r, c);
+                long onlyA = unknownA & ~unknownB;
+                long onlyB = unknownB & ~unknownA;
+                if (minesA - minesB == Long.bitCount(onlyA)) {
+                    markAll(onlyA, row, col, MINE);
+                    markAll(onlyB, row, col, SAFE);
+                } else if (minesB - minesA == Long.bitCount(onlyB)) {
+                    markAll(onlyB, row, col, MINE);
+                    markAll(onlyA, row, col, SAFE);
+                }
+            }
+        }
+    }
+
+    /**
+     * Find the hidden neighbors of a number that the solver doesn't know anything about yet.
+     * @param row The row of the number.
+     * @param col The column of the number.
+     * @param centerRow The row at the center of the bit window.
+     * @param centerCol The column at the center of the bit window.
+     * @return One bit per unknown neighbor, positioned in the window around (centerRow, centerCol).
+     */
+    private long unknownNeighbors(int row, int col, int centerRow, int centerCol) {
+        long bits = 0;
+        for (int r = Math.max(0, row - 1); r <= Math.min(height - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(width - 1, col + 1); c++) {
+                if (knowledge[r * width + c] == UNKNOWN) {
+                    bits |= 1L << windowBit(r - centerRow, c - centerCol);
+                }
+            }
+        }
+        return bits;
+    }
+
+    private int knownMineNeighbors(int row, int col) {
+        int mines = 0;
+        for (int r = Math.max(0, row - 1); r <= Math.min(height - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(width - 1, col + 1); c++) {
+                if (knowledge[r * width + c] == MINE) {
+                    mines++;
+                }
+            }
+        }
+        return mines;
+    }
+
+    /**
+     * Record what was learned about every cell in a bit window.
+     * @param bits The cells, as bits in the window around (centerRow, centerCol).
+     * @param centerRow The row at the center of the bit window.
+     * @param centerCol The column at the center of the bit window.
+     * @param verdict SAFE or MINE.
+     */
+    private void markAll(long bits, int centerRow, int centerCol, byte verdict) {
+        while (bits != 0) {
+            int bit = Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            int row = centerRow + bit / WINDOW - WINDOW_CENTER;
+            int col = centerCol + bit % WINDOW - WINDOW_CENTER;
+            int cell = row * width + col;
+            if (knowledge[cell] != UNKNOWN) {
+                continue;
+            }
+            knowledge[cell] = verdict;
+            if (verdict == SAFE) {
+                safeCells.add(cell);
+            } else {
+                mineCount++;
+                if (autoMovesUsed) {
+                    autoMoveQueue.add(cell);
+                }
+            }
+            queueNumbersAround(row, col);
+        }
+    }
+
+    /**
+     * Queue every revealed number in the 3x3 block around a cell (including the cell itself).
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    private void queueNumbersAround(int row, int col) {
+        for (int r = Math.max(0, row - 1); r <= Math.min(height - 1, row + 1); r++) {
+            for (int c = Math.max(0, col - 1); c <= Math.min(width - 1, col + 1); c++) {
+                int cell = r * width + c;
+                if (numbers[cell] > 0 && !queued.get(cell)) {
+                    queued.set(cell);
+                    workStack.add(cell);
+                }
+            }
+        }
+    }
+
+    private static int windowBit(int dRow, int dCol) {
+        return (dRow + WINDOW_CENTER) * WINDOW + dCol + WINDOW_CENTER;
+    }
+
+    /**
+     * A list of cell indexes that grows as needed, so it only costs as much as what's in it.
+     */
+    private static final class IntList {
+        private int[] items = new int[16];
+        private int size;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+
+        int get(int index) {
+            return items[index];
+        }
+
+        int removeLast() {
+            return items[--size];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
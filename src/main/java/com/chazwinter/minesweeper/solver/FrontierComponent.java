@@ -0,0 +1,252 @@
+package com.chazwinter.minesweeper.solver;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * One independent piece of the frontier: a group of hidden cells that touch revealed numbers,
+ * where no number touches cells from two different groups. Each group can be solved on its own
+ * (and on its own thread), and the ProbabilityEngine combines the results afterwards.
+ *
+ * Solving a group means counting the ways its mines can be placed, split up by how many mines
+ * are used (k), and how many of those placements put a mine on each cell. Small groups are
+ * enumerated exactly. Big ones (or ones that take too long) are sampled with Knuth's estimator:
+ * walk one random path down the same search tree, and weigh the placement at the end by how many
+ * choices there were along the way. Averaged over many walks, that gives unbiased counts.
+ * Groups too big even for that (mineWeights alone would be huge) only get a rough estimate.
+ */
+class FrontierComponent extends RecursiveAction {
+    /* Groups with more cells than this are sampled instead of enumerated. */
+    static final int MAX_EXACT_CELLS = 48;
+    /* Groups with more cells than this are estimated instead of sampled, so mineWeights stays a few MB at most. */
+    static final int MAX_SAMPLED_CELLS = 4096;
+    /* Give up enumerating after visiting this many search nodes, and sample instead. */
+    private static final long MAX_EXACT_NODES = 2_000_000;
+    private static final int SAMPLE_BATCH = 64;
+    private static final int MAX_SAMPLES = 50_000;
+    /* Mine counts per cell are grouped into at most this many k buckets, to bound memory on huge groups. */
+    private static final int MAX_K_BUCKETS = 64;
+
+    final int[] cells;              // Board index of each cell, in search order.
+    private final int[][] cellConstraints;  // For each cell, the constraints it's part of.
+    private final int[] targets;    // How many mines each constraint needs.
+    private final int[] unassigned; // Search state: cells in each constraint with no value yet.
+    private final int[] mines;      // Search state: mines placed in each constraint so far.
+    private final boolean[] isMine; // Search state: the current placement.
+    private final long deadline;
+    private final long seed;
+
+    final double[] weights;         // weights[k]: how many placements use k mines.
+    final double[] mineWeights;     // mineWeights[cell * buckets + bucket(k)]: placements with a mine on the cell.
+    final int bucketWidth;
+    final int buckets;
+    boolean exact;
+    private long nodes;
+    /* Sampled weights are powers of 2 that overflow a double on big groups, so everything
+        recorded is scaled down by 2^scale, where scale is the biggest power seen so far. */
+    private int scale;
+
+    /**
+     * @param cells The board index of each cell in the group, in the order they should be searched.
+     *              Cells that share constraints should be close together, so bad placements get
+     *              caught early.
+     * @param cellConstraints For each cell (by position in cells), the constraints it belongs to.
+     * @param targets For each constraint, how many mines it needs.
+     * @param deadline System.nanoTime() value when the work has to stop.
+     * @param seed Seed for the Monte Carlo sampling, so results are repeatable.
+     */
+    FrontierComponent(int[] cells, int[][] cellConstraints, int[] targets, long deadline, long seed) {
+        this.cells = cells;
+        this.cellConstraints = cellConstraints;
+        this.targets = targets;
+        this.unassigned = constraintSizes(cellConstraints, targets.length);
+        this.mines = new int[targets.length];
+        this.isMine = new boolean[cells.length];
+        this.deadline = deadline;
+        this.seed = seed;
+        int n = cells.length;
+        weights = new double[n + 1];
+        // An estimated group only has one mine count, so it only needs one bucket.
+        bucketWidth = n > MAX_SAMPLED_CELLS ? n + 1 : (n + MAX_K_BUCKETS) / MAX_K_BUCKETS;
+        buckets = n / bucketWidth + 1;
+        mineWeights = new double[n * buckets];
+    }
+
+    @Override
+    protected void compute() {
+        if (cells.length > MAX_SAMPLED_CELLS) {
+            estimate();
+            return;
+        }
+        if (cells.length <= MAX_EXACT_CELLS) {
+            exact = enumerate(0, 0);
+            if (exact) {
+                return;
+            }
+            // Too slow: throw away the partial counts and sample instead.
+            Arrays.fill(weights, 0);
+            Arrays.fill(mineWeights, 0);
+            scale = 0;
+        }
+        sample();
+    }
+
+    int bucket(int k) {
+        return k / bucketWidth;
+    }
+
+    /**
+     * Try every placement, depth first, skipping any branch that already breaks a constraint.
+     * @param index The cell to decide next.
+     * @param placed How many mines have been placed so far.
+     * @return False if the search was abandoned because it took too long.
+     */
+    private boolean enumerate(int index, int placed) {
+        if ((++nodes & 0xFFF) == 0 && (nodes > MAX_EXACT_NODES || System.nanoTime() > deadline)) {
+            return false;
+        }
+        if (index == cells.length) {
+            record(placed, 0);
+            return true;
+        }
+        for (int value = 0; value <= 1; value++) {
+            if (canAssign(index, value)) {
+                assign(index, value);
+                boolean finished = enumerate(index + 1, placed + value);
+                unassign(index, value);
+                if (!finished) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The rough estimate for groups too big to sample: each cell gets the average, over the numbers
+     * it touches, of how many mines the number needs per hidden cell around it. The group's mine
+     * count is the total of those, rounded, and it's the only mine count the group gets.
+     */
+    private void estimate() {
+        double expectedMines = 0;
+        for (int i = 0; i < cells.length; i++) {
+            double sum = 0;
+            for (int constraint : cellConstraints[i]) {
+                sum += (double) targets[constraint] / unassigned[constraint];
+            }
+            double probability = Math.min(1, sum / cellConstraints[i].length);
+            mineWeights[i] = probability;
+            expectedMines += probability;
+        }
+        weights[(int) Math.min(cells.length, Math.round(expectedMines))] = 1;
+    }
+
+    /**
+     * Knuth's estimator: random walks down the search tree, until the deadline or enough samples.
+     * A walk that hits a dead end counts as a placement with weight 0.
+     */
+    private void sample() {
+        SplittableRandom random = new SplittableRandom(seed);
+        int samples = 0;
+        do {
+            for (int i = 0; i < SAMPLE_BATCH; i++) {
+                walk(random);
+            }
+            samples += SAMPLE_BATCH;
+        } while (samples < MAX_SAMPLES && System.nanoTime() < deadline);
+    }
+
+    private void walk(SplittableRandom random) {
+        int choices = 0;
+        int placed = 0;
+        int depth = 0;
+        for (; depth < cells.length; depth++) {
+            boolean safeOk = canAssign(depth, 0);
+            boolean mineOk = canAssign(depth, 1);
+            int value;
+            if (safeOk && mineOk) {
+                choices++;
+                value = random.nextBoolean() ? 1 : 0;
+            } else if (safeOk || mineOk) {
+                value = mineOk ? 1 : 0;
+            } else {
+                break;  // Dead end
+            }
+            assign(depth, value);
+            placed += value;
+        }
+        if (depth == cells.length) {
+            record(placed, choices);
+        }
+        for (int i = depth - 1; i >= 0; i--) {
+            unassign(i, isMine[i] ? 1 : 0);
+        }
+    }
+
+    /**
+     * Count the current placement.
+     * @param placed How many mines it has.
+     * @param choices How many 50/50 choices led to it. It stands for 2^choices placements.
+     */
+    private void record(int placed, int choices) {
+        if (choices > scale) {
+            double rescale = Math.scalb(1.0, scale - choices);
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] *= rescale;
+            }
+            for (int i = 0; i < mineWeights.length; i++) {
+                mineWeights[i] *= rescale;
+            }
+            scale = choices;
+        }
+        double weight = Math.scalb(1.0, choices - scale);
+        weights[placed] += weight;
+        int bucket = bucket(placed);
+        for (int i = 0; i < cells.length; i++) {
+            if (isMine[i]) {
+                mineWeights[i * buckets + bucket] += weight;
+            }
+        }
+    }
+
+    /**
+     * Check that giving a cell a value doesn't make any of its constraints impossible:
+     * too many mines, or not enough cells left to reach the number.
+     */
+    private boolean canAssign(int index, int value) {
+        for (int constraint : cellConstraints[index]) {
+            int minesAfter = mines[constraint] + value;
+            if (minesAfter > targets[constraint] || minesAfter + unassigned[constraint] - 1 < targets[constraint]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void assign(int index, int value) {
+        isMine[index] = value == 1;
+        for (int constraint : cellConstraints[index]) {
+            mines[constraint] += value;
+            unassigned[constraint]--;
+        }
+    }
+
+    private void unassign(int index, int value) {
+        isMine[index] = false;
+        for (int constraint : cellConstraints[index]) {
+            mines[constraint] -= value;
+            unassigned[constraint]++;
+        }
+    }
+
+    private static int[] constraintSizes(int[][] cellConstraints, int numConstraints) {
+        int[] sizes = new int[numConstraints];
+        for (int[] constraints : cellConstraints) {
+            for (int constraint : constraints) {
+                sizes[constraint]++;
+            }
+        }
+        return sizes;
+    }
+}
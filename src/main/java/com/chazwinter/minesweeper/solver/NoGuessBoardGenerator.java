@@ -0,0 +1,256 @@
+package com.chazwinter.minesweeper.solver;
+
+import com.chazwinter.minesweeper.model.Minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds boards that can be solved from the first click without ever guessing: the
+ * DeductionSolver, starting from the first click, can reveal every safe cell on its own.
+ *
+ * The first click always opens up an area (no mines in the 3x3 around it), since that's where
+ * the solver starts. Random boards are generated and checked on every core at once, and the
+ * search stops as soon as any of them passes. If nothing passes within the first half of the time
+ * budget, the board that got the furthest is repaired for the rest of it: wherever the solver gets
+ * stuck, a mine it couldn't pin down is moved somewhere the player hasn't seen yet, and the board
+ * is checked again.
+ */
+public class NoGuessBoardGenerator {
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+    /* The most mines the repair step may move before it settles for what it's got. */
+    private static final int MAX_RELOCATIONS = 500;
+    /* How much of the time budget goes to looking for a board that's solvable as is. The rest is for repairs. */
+    private static final double SEARCH_SHARE = 0.5;
+
+    private final int height;
+    private final int width;
+    private final int numBombs;
+    private final long timeBudgetMillis;
+
+    /**
+     * Constructor for the generator. It can be reused for any number of boards with the same settings.
+     * @param height The number of rows on the board.
+     * @param width The number of columns on the board.
+     * @param numBombs The number of bombs on the board.
+     * @param timeBudgetMillis Roughly how long generate() may take, looking for a board and then repairing one.
+     */
+    public NoGuessBoardGenerator(int height, int width, int numBombs, long timeBudgetMillis) {
+        if (numBombs > height * width - 9) {
+            throw new IllegalArgumentException("Too many bombs to keep the first click clear: " + numBombs);
+        }
+        this.height = height;
+        this.width = width;
+        this.numBombs = numBombs;
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Build a board that's solvable without guessing when the first click is at (firstRow, firstCol).
+     * The game is ready to play, but the first click hasn't been made yet.
+     * @param firstRow The row of the first click.
+     * @param firstCol The column of the first click.
+     * @param seed Seed for the random boards. The board that wins depends on thread timing, and its
+     *             bombs are placed around the first click (and maybe moved by the repair step),
+     *             so no seed can recreate it. Only its bombs can.
+     * @return The new game. It isn't reproducible from its seed (see Minesweeper.isReproducibleFromSeed()).
+     */
+    public Minesweeper generate(int firstRow, int firstCol, long seed) {
+        long start = System.nanoTime();
+        long budget = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        long searchDeadline = start + (long) (budget * SEARCH_SHARE);
+        long deadline = start + budget;
+        AtomicReference<Candidate> solved = new AtomicReference<>();
+        Candidate[] furthest = new Candidate[1];
+        SplittableRandom seeds = new SplittableRandom(seed);
+
+        List<ForkJoinTask<?>> workers = new ArrayList<>();
+        for (int i = 0; i < POOL.getParallelism(); i++) {
+            SplittableRandom workerSeeds = seeds.split();
+            workers.add(POOL.submit(() -> {
+                while (solved.get() == null && System.nanoTime() < searchDeadline) {
+                    long candidateSeed = workerSeeds.nextLong();
+                    Candidate candidate = new Candidate(candidateSeed,
+                            placeBombs(firstRow, firstCol, candidateSeed), firstRow, firstCol);
+                    if (candidate.solved) {
+                        solved.compareAndSet(null, candidate);
+                    } else {
+                        synchronized (furthest) {
+                            if (furthest[0] == null || candidate.moves > furthest[0].moves) {
+                                furthest[0] = candidate;
+                            }
+                        }
+                    }
+                }
+            }));
+        }
+        for (ForkJoinTask<?> worker : workers) {
+            worker.join();
+        }
+
+        Candidate best = solved.get();
+        if (best == null) {
+            best = repair(furthest[0] != null ? furthest[0]
+                    : new Candidate(seed, placeBombs(firstRow, firstCol, seed), firstRow, firstCol), seed, deadline);
+        }
+        Minesweeper minesweeper = new Minesweeper(height, width, numBombs, best.seed);
+        minesweeper.initializeBoard(best.bombs);
+        return minesweeper;
+    }
+
+    /**
+     * Fix up a board that the solver gets stuck on, by moving the mines that it can't pin down
+     * out of its way. Moving a mine changes numbers the solver has already used, so after every
+     * move the whole board is played again from the first click. That's as slow as checking a new
+     * board, which is why this stops at the deadline (or after MAX_RELOCATIONS moves).
+     * @param candidate The board to fix.
+     * @param seed Seed for choosing where moved mines go.
+     * @param deadline System.nanoTime() value when it has to settle for what it's got.
+     * @return The fixed board, or the best it could do if it ran out of moves or time.
+     */
+    private Candidate repair(Candidate candidate, long seed, long deadline) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < MAX_RELOCATIONS && !candidate.solved && System.nanoTime() < deadline; i++) {
+            int from = candidate.findStuckMine();
+            int to = candidate.findHiddenSafeCell(random);
+            if (from < 0 || to < 0) {
+                break;
+            }
+            int[] bombs = candidate.bombs.clone();
+            for (int b = 0; b < bombs.length; b++) {
+                if (bombs[b] == from) {
+                    bombs[b] = to;
+                }
+            }
+            candidate = new Candidate(candidate.seed, bombs, candidate.firstRow, candidate.firstCol);
+        }
+        if (!candidate.solved) {
+            System.out.println("Couldn't build a board without guessing. This one might need a guess or two.");
+        }
+        return candidate;
+    }
+
+    /**
+     * Place the bombs at random (Floyd's algorithm, like Minesweeper does), but never in the
+     * 3x3 block around the first click.
+     * @return The cell indices of the bombs.
+     */
+    private int[] placeBombs(int firstRow, int firstCol, long seed) {
+        int[] allowed = new int[height * width];
+        int allowedCount = 0;
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (Math.abs(row - firstRow) > 1 || Math.abs(col - firstCol) > 1) {
+                    allowed[allowedCount++] = row * width + col;
+                }
+            }
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        boolean[] chosen = new boolean[allowedCount];
+        int[] bombs = new int[numBombs];
+        int placed = 0;
+        for (int j = allowedCount - numBombs; j < allowedCount; j++) {
+            int candidate = random.nextInt(j + 1);
+            if (chosen[candidate]) {
+                candidate = j;
+            }
+            chosen[candidate] = true;
+            bombs[placed++] = allowed[candidate];
+        }
+        return bombs;
+    }
+
+    /**
+     * One possible board, and how far the solver got on it.
+     */
+    private class Candidate {
+        final long seed;
+        final int[] bombs;
+        final int firstRow;
+        final int firstCol;
+        final Minesweeper game;
+        final DeductionSolver solver;
+        final boolean solved;
+        final int moves;           // How far the solver got.
+
+        /**
+         * Play the board with the solver, from the first click until it wins or gets stuck.
+         */
+        Candidate(long seed, int[] bombs, int firstRow, int firstCol) {
+            this.seed = seed;
+            this.bombs = bombs;
+            this.firstRow = firstRow;
+            this.firstCol = firstCol;
+            game = new Minesweeper(height, width, numBombs, seed);
+            game.initializeBoard(bombs);
+            solver = new DeductionSolver(game);
+            game.reveal(firstRow, firstCol);
+            int moves = 1;
+            int cell;
+            while (!game.isGameOver() && (cell = solver.findSafeCell()) >= 0) {
+                game.reveal(cell / width, cell % width);
+                moves++;
+            }
+            solved = game.didYouWin();
+            this.moves = moves;
+        }
+
+        /**
+         * Find a mine the solver is stuck on: one next to a revealed number that it couldn't pin down.
+         * @return Its cell index, or -1 if there isn't one.
+         */
+        int findStuckMine() {
+            for (int row = 0; row < height; row++) {
+                for (int col = 0; col < width; col++) {
+                    if (game.isBomb(row, col) && !solver.isKnownMine(row, col) && touchesRevealed(row, col)) {
+                        return row * width + col;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Pick a random place to move a mine to. The best spot is a hidden cell far enough from the
+         * revealed area that no number the solver has seen changes. If there's no such cell left,
+         * any hidden cell the solver couldn't figure out will do (except next to the first click).
+         * @return Its cell index, or -1 if there isn't one.
+         */
+        int findHiddenSafeCell(SplittableRandom random) {
+            int totalCells = height * width;
+            int start = random.nextInt(totalCells);
+            int fallback = -1;
+            for (int i = 0; i < totalCells; i++) {
+                int cell = (start + i) % totalCells;
+                int row = cell / width;
+                int col = cell % width;
+                if (game.isBomb(row, col) || game.isRevealed(row, col) || solver.isKnownSafe(row, col)) {
+                    continue;
+                }
+                if (!touchesRevealed(row, col)) {
+                    return cell;
+                }
+                if (fallback < 0 && (Math.abs(row - firstRow) > 1 || Math.abs(col - firstCol) > 1)) {
+                    fallback = cell;
+                }
+            }
+            return fallback;
+        }
+
+        private boolean touchesRevealed(int row, int col) {
+            for (int r = row - 1; r <= row + 1; r++) {
+                for (int c = col - 1; c <= col + 1; c++) {
+                    if (game.isInBounds(r, c) && game.isRevealed(r, c)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package com.chazwinter.minesweeper.solver;
+
+import com.chazwinter.minesweeper.model.Minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Works out the chance that each hidden cell is a mine, for when there's no certain move.
+ *
+ * Only what the player can see is used (the numbers on revealed cells, and the total number of
+ * mines). Flags are ignored, because they could be wrong. The hidden cells next to numbers (the
+ * frontier) are split into independent groups, which are solved in parallel on a ForkJoinPool
+ * (see FrontierComponent). Then the groups are combined: every way of splitting the mines between
+ * the groups is weighted by how many ways the leftover mines can go in the cells that don't touch
+ * any number. That's what makes a placement that uses fewer mines more or less likely than one
+ * that uses more.
+ *
+ * Every calculation has a time budget, which starts before the board is copied. If it runs out
+ * before the groups are even found, every hidden cell gets the same probability. Groups that can't
+ * be enumerated in time are sampled (or only estimated, if they're huge), and if time runs out while
+ * the groups are being combined, the rest of the groups just get their own probabilities (as if the
+ * mine count didn't matter). The map says whether it's exact.
+ */
+public class ProbabilityEngine {
+    private static final ForkJoinPool POOL = new ForkJoinPool();
+    private static final int[] NEIGHBOR_ROWS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] NEIGHBOR_COLS = {-1, 0, 1, -1, 1, -1, 0, 1};
+    /* The loops over the whole board check the clock once every this many steps (minus 1, as a mask). */
+    private static final int DEADLINE_CHECK_MASK = 0xFFF;
+
+    private final int height;
+    private final int width;
+    private final int totalBombs;
+    private final BitSet revealed;
+    private final BitSet bombs;     // Only used to work out the numbers on revealed cells.
+    private final long deadline;
+    private final long seed;
+    private boolean outOfTime;      // Time ran out while combining the groups.
+    private long steps;             // For isOutOfTime().
+
+    /**
+     * Copy the board, so the rest of the work can happen on another thread while the game goes on.
+     * This is the only part that runs on the calling thread, so it just takes two bit sets
+     * (1 bit per cell each). The numbers are worked out from them later, in run().
+     */
+    private ProbabilityEngine(Minesweeper minesweeper, long timeBudgetMillis) {
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        this.height = minesweeper.getHeight();
+        this.width = minesweeper.getWidth();
+        this.totalBombs = minesweeper.getTotalBombs();
+        this.revealed = minesweeper.getRevealedCells();
+        this.bombs = minesweeper.getBombCells();
+        this.seed = minesweeper.getSeed();
+    }
+
+    /**
+     * Work out the mine probabilities for the board as it is right now.
+     * @param minesweeper The game.
+     * @param timeBudgetMillis Roughly how long this is allowed to take.
+     * @return The probability of a mine on each cell.
+     */
+    public static ProbabilityMap calculate(Minesweeper minesweeper, long timeBudgetMillis) {
+        return new ProbabilityEngine(minesweeper, timeBudgetMillis).run();
+    }
+
+    /**
+     * Same as calculate(), but in the background. The board is copied right away (on the calling
+     * thread), so it's fine to keep playing while the probabilities are worked out.
+     * @param minesweeper The game.
+     * @param timeBudgetMillis Roughly how long this is allowed to take.
+     * @return The probability map, when it's ready.
+     */
+    public static CompletableFuture<ProbabilityMap> calculateAsync(Minesweeper minesweeper, long timeBudgetMillis) {
+        ProbabilityEngine engine = new ProbabilityEngine(minesweeper, timeBudgetMillis);
+        return CompletableFuture.supplyAsync(engine::run, POOL);
+    }
+
+    private ProbabilityMap run() {
+        int totalCells = height * width;
+        // Every map needs these two, even the rough one for when time runs out.
+        boolean[] hidden = new boolean[totalCells];
+        Arrays.fill(hidden, true);
+        for (int cell = revealed.nextSetBit(0); cell >= 0; cell = revealed.nextSetBit(cell + 1)) {
+            hidden[cell] = false;
+        }
+        int hiddenCount = totalCells - revealed.cardinality();
+        float[] probabilities = new float[totalCells];
+
+        // The cells next to a number are the frontier, and every revealed cell next to a hidden
+        // cell is a constraint. Nothing else needs a per-cell array, so only these are collected.
+        BitSet frontier = new BitSet(totalCells);
+        int[] constraintCells = new int[64];
+        int constraintTotal = 0;
+        for (int cell = revealed.nextSetBit(0); cell >= 0; cell = revealed.nextSetBit(cell + 1)) {
+            if (isOutOfTime()) {
+                return uniformMap(hidden, hiddenCount, probabilities);
+            }
+            int row = cell / width;
+            int col = cell % width;
+            boolean touchesHidden = false;
+            for (int d = 0; d < NEIGHBOR_ROWS.length; d++) {
+                int neighbor = neighbor(row, col, d);
+                if (neighbor >= 0 && hidden[neighbor]) {
+                    frontier.set(neighbor);
+                    touchesHidden = true;
+                }
+            }
+            if (touchesHidden) {
+                if (constraintTotal == constraintCells.length) {
+                    constraintCells = Arrays.copyOf(constraintCells, constraintTotal * 2);
+                }
+                constraintCells[constraintTotal++] = cell;
+            }
+        }
+
+        List<FrontierComponent> components = buildComponents(hidden, frontier,
+                Arrays.copyOf(constraintCells, constraintTotal));
+        if (components == null) {
+            return uniformMap(hidden, hiddenCount, probabilities);
+        }
+        List<ForkJoinTask<Void>> tasks = new ArrayList<>();
+        for (FrontierComponent component : components) {
+            tasks.add(POOL.submit(component));
+        }
+        boolean exact = true;
+        int interiorCount = hiddenCount;
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).join();
+            exact &= components.get(i).exact;
+            interiorCount -= components.get(i).cells.length;
+        }
+
+        if (!combine(components, hidden, frontier, interiorCount, probabilities)) {
+            // The board didn't add up at all (shouldn't happen).
+            return uniformMap(hidden, hiddenCount, probabilities);
+        }
+        exact &= !outOfTime;
+        return new ProbabilityMap(height, width, probabilities, hidden, exact);
+    }
+
+    /**
+     * The fallback for when there's no time (or the board didn't add up): every hidden cell is the same.
+     */
+    private ProbabilityMap uniformMap(boolean[] hidden, int hiddenCount, float[] probabilities) {
+        float uniform = hiddenCount == 0 ? 0 : Math.min(1f, (float) totalBombs / hiddenCount);
+        for (int cell = 0; cell < probabilities.length; cell++) {
+            probabilities[cell] = hidden[cell] ? uniform : 0;
+        }
+        return new ProbabilityMap(height, width, probabilities, hidden, false);
+    }
+
+    /**
+     * Split the frontier into independent groups. Each group is found with a breadth first search
+     * from cell to constraint to cell, which also puts its cells in a good order for the search
+     * (neighboring cells are decided one after another). A frontier cell's constraints are just its
+     * revealed neighbors, and constraintCells is sorted, so a constraint's number is found with a
+     * binary search instead of a table the size of the board.
+     * @param constraintCells The cell index of every constraint, from top-left to bottom-right.
+     * @return The groups, or null if the deadline passed before they were all found.
+     */
+    private List<FrontierComponent> buildComponents(boolean[] hidden, BitSet frontier, int[] constraintCells) {
+        List<FrontierComponent> components = new ArrayList<>();
+        int[] localConstraint = new int[constraintCells.length];
+        Arrays.fill(localConstraint, -1);
+        BitSet visited = new BitSet(height * width);
+        int[] queue = new int[64];
+        for (int start = frontier.nextSetBit(0); start >= 0; start = frontier.nextSetBit(start + 1)) {
+            if (visited.get(start)) {
+                continue;
+            }
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            visited.set(start);
+            List<Integer> constraints = new ArrayList<>();
+            while (head < tail) {
+                if (isOutOfTime()) {
+                    return null;
+                }
+                int cell = queue[head++];
+                for (int d = 0; d < NEIGHBOR_ROWS.length; d++) {
+                    int constraintCell = neighbor(cell / width, cell % width, d);
+                    if (constraintCell < 0 || hidden[constraintCell]) {
+                        continue;
+                    }
+                    int constraint = Arrays.binarySearch(constraintCells, constraintCell);
+                    if (localConstraint[constraint] >= 0) {
+                        continue;
+                    }
+                    localConstraint[constraint] = constraints.size();
+                    constraints.add(constraint);
+                    int row = constraintCell / width;
+                    int col = constraintCell % width;
+                    for (int e = 0; e < NEIGHBOR_ROWS.length; e++) {
+                        int neighbor = neighbor(row, col, e);
+                        if (neighbor >= 0 && hidden[neighbor] && !visited.get(neighbor)) {
+                            visited.set(neighbor);
+                            if (tail == queue.length) {
+                                queue = Arrays.copyOf(queue, tail * 2);
+                            }
+                            queue[tail++] = neighbor;
+                        }
+                    }
+                }
+            }
+            int[] cells = Arrays.copyOf(queue, tail);
+            int[][] cellConstraints = new int[tail][];
+            int[] found = new int[NEIGHBOR_ROWS.length];
+            for (int i = 0; i < tail; i++) {
+                int count = 0;
+                for (int d = 0; d < NEIGHBOR_ROWS.length; d++) {
+                    int constraintCell = neighbor(cells[i] / width, cells[i] % width, d);
+                    if (constraintCell >= 0 && !hidden[constraintCell]) {
+                        found[count++] = localConstraint[Arrays.binarySearch(constraintCells, constraintCell)];
+                    }
+                }
+                cellConstraints[i] = Arrays.copyOf(found, count);
+            }
+            int[] targets = new int[constraints.size()];
+            for (int i = 0; i < targets.length; i++) {
+                targets[i] = countBombsAround(constraintCells[constraints.get(i)]);
+            }
+            components.add(new FrontierComponent(cells, cellConstraints, targets, deadline, seed + start));
+        }
+        return components;
+    }
+
+    /**
+     * @param cell A revealed cell.
+     * @return The number on it.
+     */
+    private int countBombsAround(int cell) {
+        int row = cell / width;
+        int col = cell % width;
+        int count = 0;
+        for (int d = 0; d < NEIGHBOR_ROWS.length; d++) {
+            int neighbor = neighbor(row, col, d);
+            if (neighbor >= 0 && bombs.get(neighbor)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Combine the groups. A group's cell probability is its mine weight for each k, times the
+     * number of ways everything else can hold the other (totalBombs - k) mines, where "everything
+     * else" is the other groups (convolved together) plus the cells away from the frontier.
+     * Interior cells (the ones that don't touch any number) all get the same probability: the
+     * expected number of leftover mines, spread evenly.
+     * That's a lot of convolving when there are lots of groups, so the deadline is checked along
+     * the way. If it passes, combineWithoutMineCount() takes over.
+     * @param components The solved groups.
+     * @param hidden Which cells are hidden.
+     * @param frontier Which hidden cells touch a number.
+     * @param interiorCount How many hidden cells don't touch any number.
+     * @param probabilities Where to put the probabilities.
+     * @return False if no placement of the mines fits the board.
+     */
+    private boolean combine(List<FrontierComponent> components, boolean[] hidden, BitSet frontier,
+                            int interiorCount, float[] probabilities) {
+        int n = components.size();
+        // prefix[i] is the convolution of groups 0..i-1, suffix[i] of groups i..n-1.
+        double[][] prefix = new double[n + 1][];
+        double[][] suffix = new double[n + 1][];
+        prefix[0] = new double[] {1};
+        suffix[n] = new double[] {1};
+        for (int i = 0; i < n; i++) {
+            if (isPastDeadline()) {
+                return combineWithoutMineCount(components, hidden, frontier, interiorCount, probabilities);
+            }
+            prefix[i + 1] = convolve(prefix[i], components.get(i).weights);
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            if (isPastDeadline()) {
+                return combineWithoutMineCount(components, hidden, frontier, interiorCount, probabilities);
+            }
+            suffix[i] = convolve(components.get(i).weights, suffix[i + 1]);
+        }
+        double[] interiorWays = interiorWays(interiorCount, prefix[n].length - 1);
+
+        double total = 0;
+        double interiorMines = 0;
+        for (int s = 0; s < prefix[n].length; s++) {
+            double weight = prefix[n][s] * interiorWays[s];
+            total += weight;
+            interiorMines += weight * (totalBombs - s);
+        }
+        if (!(total > 0)) {
+            return false;
+        }
+        float interior = interiorCount == 0 ? 0 : (float) (interiorMines / total / interiorCount);
+        for (int cell = 0; cell < probabilities.length; cell++) {
+            if (hidden[cell] && !frontier.get(cell)) {
+                probabilities[cell] = interior;
+            }
+        }
+
+        for (int c = 0; c < n; c++) {
+            FrontierComponent component = components.get(c);
+            if (isPastDeadline()) {
+                outOfTime = true;
+                setOwnProbabilities(component, probabilities);
+                continue;
+            }
+            double[] others = convolve(prefix[c], suffix[c + 1]);
+            // rest[k]: the ways to place the other totalBombs - k mines outside this group.
+            int size = component.weights.length;
+            double[] rest = new double[size];
+            for (int k = 0; k < size; k++) {
+                for (int j = 0; j < others.length && j + k < interiorWays.length; j++) {
+                    rest[k] += others[j] * interiorWays[j + k];
+                }
+            }
+            double componentTotal = 0;
+            double[] bucketRest = new double[component.buckets];
+            double[] bucketWeight = new double[component.buckets];
+            for (int k = 0; k < size; k++) {
+                componentTotal += component.weights[k] * rest[k];
+                bucketRest[component.bucket(k)] += component.weights[k] * rest[k];
+                bucketWeight[component.bucket(k)] += component.weights[k];
+            }
+            // Average "rest" over each bucket of k (buckets are one k wide unless the group is huge).
+            for (int b = 0; b < component.buckets; b++) {
+                bucketRest[b] = bucketWeight[b] > 0 ? bucketRest[b] / bucketWeight[b] : 0;
+            }
+            for (int i = 0; i < component.cells.length; i++) {
+                double mine = 0;
+                for (int b = 0; b < component.buckets; b++) {
+                    mine += component.mineWeights[i * component.buckets + b] * bucketRest[b];
+                }
+                probabilities[component.cells[i]] = componentTotal > 0 ? (float) (mine / componentTotal) : 0;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The fallback for when time runs out before the groups could be combined: every group gets
+     * its own probabilities, and the interior gets whatever mines the groups are expected to leave over.
+     * @return True (the probabilities are rough, but there always are some).
+     */
+    private boolean combineWithoutMineCount(List<FrontierComponent> components, boolean[] hidden,
+                                            BitSet frontier, int interiorCount, float[] probabilities) {
+        outOfTime = true;
+        double frontierMines = 0;
+        for (FrontierComponent component : components) {
+            frontierMines += setOwnProbabilities(component, probabilities);
+        }
+        float interior = interiorCount == 0 ? 0
+                : (float) Math.min(1, Math.max(0, (totalBombs - frontierMines) / interiorCount));
+        for (int cell = 0; cell < probabilities.length; cell++) {
+            if (hidden[cell] && !frontier.get(cell)) {
+                probabilities[cell] = interior;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Give a group's cells the probabilities it has on its own, ignoring how many mines are left
+     * for the rest of the board.
+     * @param component The solved group.
+     * @param probabilities Where to put the probabilities.
+     * @return How many mines the group is expected to hold.
+     */
+    private static double setOwnProbabilities(FrontierComponent component, float[] probabilities) {
+        double total = 0;
+        for (double weight : component.weights) {
+            total += weight;
+        }
+        double expectedMines = 0;
+        for (int i = 0; i < component.cells.length; i++) {
+            double mine = 0;
+            for (int b = 0; b < component.buckets; b++) {
+                mine += component.mineWeights[i * component.buckets + b];
+            }
+            float probability = total > 0 ? (float) (mine / total) : 0;
+            probabilities[component.cells[i]] = probability;
+            expectedMines += probability;
+        }
+        return expectedMines;
+    }
+
+    private boolean isPastDeadline() {
+        return System.nanoTime() > deadline;
+    }
+
+    /**
+     * Like isPastDeadline(), but only looks at the clock every so often, for the loops over the whole board.
+     */
+    private boolean isOutOfTime() {
+        return (++steps & DEADLINE_CHECK_MASK) == 0 && isPastDeadline();
+    }
+
+    /**
+     * How many ways the interior cells can hold the leftover mines, for each number of mines
+     * s used by the frontier. The numbers get astronomically big, so they're worked out as
+     * logarithms and then scaled so the biggest one is 1 (only the ratios matter).
+     * Since only the ratios matter, there's no need to work out any C(n, k) from scratch: each
+     * one is the one before times a single ratio, C(n, k - 1) = C(n, k) * k / (n - k + 1).
+     * That makes the whole thing one step per s.
+     * @param interiorCount How many interior cells there are.
+     * @param maxFrontierMines The most mines the frontier could possibly hold.
+     * @return ways[s], proportional to C(interiorCount, totalBombs - s).
+     */
+    private double[] interiorWays(int interiorCount, int maxFrontierMines) {
+        double[] ways = new double[maxFrontierMines + 1];
+        // The interior can only hold between 0 and interiorCount mines, which limits s.
+        int first = Math.max(0, totalBombs - interiorCount);
+        int last = Math.min(maxFrontierMines, totalBombs);
+        if (first > last) {
+            return ways;
+        }
+        double[] logWays = new double[last - first + 1];
+        double max = 0;     // logWays[0] is log C(interiorCount, totalBombs - first), counted as 0.
+        for (int s = first + 1; s <= last; s++) {
+            int k = totalBombs - s + 1;     // Going from C(n, k) to C(n, k - 1).
+            logWays[s - first] = logWays[s - first - 1] + Math.log((double) k / (interiorCount - k + 1));
+            max = Math.max(max, logWays[s - first]);
+        }
+        for (int s = first; s <= last; s++) {
+            ways[s] = Math.exp(logWays[s - first] - max);
+        }
+        return ways;
+    }
+
+    /**
+     * Convolve two mine count distributions, scaled so the biggest entry is 1
+     * (so multiplying lots of them together can't overflow).
+     */
+    private static double[] convolve(double[] a, double[] b) {
+        double[] result = new double[a.length + b.length - 1];
+        double max = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == 0) {
+                continue;
+            }
+            for (int j = 0; j < b.length; j++) {
+                result[i + j] += a[i] * b[j];
+            }
+        }
+        for (double value : result) {
+            max = Math.max(max, value);
+        }
+        if (max > 0) {
+            for (int i = 0; i < result.length; i++) {
+                result[i] /= max;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * One of the cells around a cell, without making an array for them (this is in all the hot loops).
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param direction Which neighbor, from 0 to 7 (see NEIGHBOR_ROWS and NEIGHBOR_COLS).
+     * @return The neighbor's cell index, or -1 if it's off the board.
+     */
+    private int neighbor(int row, int col, int direction) {
+        int r = row + NEIGHBOR_ROWS[direction];
+        int c = col + NEIGHBOR_COLS[direction];
+        return r >= 0 && r < height && c >= 0 && c < width ? r * width + c : -1;
+    }
+}
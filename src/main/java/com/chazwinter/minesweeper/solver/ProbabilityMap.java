@@ -0,0 +1,67 @@
+package com.chazwinter.minesweeper.solver;
+
+/**
+ * The chance that each hidden cell is a mine, as worked out by the ProbabilityEngine.
+ * Revealed cells always have a probability of 0.
+ */
+public class ProbabilityMap {
+    private final int height;
+    private final int width;
+    private final float[] probabilities;
+    private final boolean[] hidden;
+    private final boolean exact;
+
+    ProbabilityMap(int height, int width, float[] probabilities, boolean[] hidden, boolean exact) {
+        this.height = height;
+        this.width = width;
+        this.probabilities = probabilities;
+        this.hidden = hidden;
+        this.exact = exact;
+    }
+
+    /**
+     * The chance that a cell is a mine.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return A probability from 0 (certainly safe) to 1 (certainly a mine).
+     */
+    public double getProbability(int row, int col) {
+        return probabilities[row * width + col];
+    }
+
+    public boolean isHidden(int row, int col) {
+        return hidden[row * width + col];
+    }
+
+    /**
+     * Find the hidden cell that is least likely to be a mine. This is the best guess when
+     * there's no certain move (it doesn't look ahead at how much a cell would reveal).
+     * @return The cell index (row * width + col), or -1 if every cell is revealed.
+     */
+    public int getSafestCell() {
+        int best = -1;
+        for (int cell = 0; cell < probabilities.length; cell++) {
+            if (hidden[cell] && (best < 0 || probabilities[cell] < probabilities[best])) {
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Whether every probability was worked out exactly. If not, some parts of the board were too
+     * big (or the time budget ran out), and their probabilities are Monte Carlo estimates.
+     * @return True if all probabilities are exact.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+}
@@ -0,0 +1,66 @@
+package com.chazwinter.minesweeper.ui;
+
+import com.chazwinter.minesweeper.model.ChangeSet;
+import com.chazwinter.minesweeper.model.Minesweeper;
+import com.chazwinter.minesweeper.solver.ProbabilityMap;
+import javafx.scene.Node;
+
+/**
+ * Something that can draw the game board on screen and send mouse clicks back to the game.
+ * There is one implementation per renderer (see RendererType), and the MinesweeperUIBuilder
+ * doesn't care which one it's talking to.
+ */
+public interface BoardView {
+
+    /**
+     * The Node that goes in the main window. It stays the same for the whole session,
+     * even when a new game is started.
+     * @return The Node that displays the board.
+     */
+    Node getNode();
+
+    /**
+     * Rebuild the board for a new game, with every cell hidden.
+     * @param minesweeper The new game to display.
+     * @param mouseEventHandler Where to send mouse clicks on the board.
+     */
+    void newGame(Minesweeper minesweeper, MouseEventHandler mouseEventHandler);
+
+    /**
+     * Redraw the cells that changed during a move. Nothing else on the board is touched.
+     * @param changes The cells that changed.
+     */
+    void updateCells(ChangeSet changes);
+
+    /**
+     * Draw a bomb on a cell even though it hasn't been revealed. Only used for "debugging."
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    void showBomb(int row, int col);
+
+    /**
+     * Highlight a cell, to show the player a hint. Only one cell is highlighted at a time.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     */
+    void showHint(int row, int col);
+
+    /**
+     * Remove the hint highlight, if there is one.
+     */
+    void clearHint();
+
+    /**
+     * Tint every hidden cell by how likely it is to be a mine (green is safe, red is a mine).
+     * The tint stays until it's replaced by a newer map, or removed.
+     * @param probabilities The probabilities to show, or null to remove the tint.
+     */
+    void showProbabilities(ProbabilityMap probabilities);
+
+    /**
+     * Draw every cell again, for when the cell images or font have changed (they finish loading
+     * after the window is already up).
+     */
+    void redraw();
+}
@@ -0,0 +1,285 @@
+package com.chazwinter.minesweeper.ui;
+
+import com.chazwinter.minesweeper.model.ChangeSet;
+import com.chazwinter.minesweeper.model.Minesweeper;
+import com.chazwinter.minesweeper.solver.ProbabilityMap;
+import com.chazwinter.minesweeper.util.UIProperties;
+import javafx.scene.Node;
+import javafx.scene.control.Button;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.shape.Rectangle;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The original renderer: one Button per cell, laid out in a GridPane.
+ * The Buttons don't listen to the mouse themselves. One pair of event filters on the grid
+ * works out which cell is under the mouse from its position (every cell is CELL_SIZE square),
+ * so there are no per-cell handlers to create.
+ * The Buttons are also kept from one game to the next. A new game just puts each one back to
+ * its untouched look, and only adds or removes the rows and columns that changed size.
+ * Each Button shows a single ImageView, and changing a cell just swaps in the CellGraphics image
+ * for its new state, so updates don't build any nodes.
+ */
+public class ButtonBoardView implements BoardView {
+    private final GridPane buttonGrid;
+    private Minesweeper minesweeper;
+    private MouseEventHandler mouseEventHandler;
+    private Button[][] cellButtons = new Button[0][0];
+    private ImageView[][] cellImages = new ImageView[0][0];    // The one image each button shows.
+    private Rectangle[][] tints = new Rectangle[0][0];          // Probability overlay, made the first time it's needed.
+    private CellGraphics cellGraphics = CellGraphics.forSize(UIProperties.CELL_SIZE);
+    private Button hintButton;
+    private ProbabilityMap probabilities;
+    private int pressedRow = -1;
+    private int pressedCol = -1;
+
+    /**
+     * Constructor for the Button board. The buttons themselves are created by newGame().
+     */
+    public ButtonBoardView() {
+        buttonGrid = new GridPane();
+        buttonGrid.setPadding(UIProperties.INSETS);
+        // Never stretch past the buttons, or the grid would stop being centered in a big window.
+        buttonGrid.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+        buttonGrid.addEventFilter(MouseEvent.MOUSE_PRESSED, this::handleMousePressed);
+        buttonGrid.addEventFilter(MouseEvent.MOUSE_RELEASED, this::handleMouseReleased);
+    }
+
+    @Override
+    public Node getNode() {
+        return buttonGrid;
+    }
+
+    @Override
+    public void newGame(Minesweeper minesweeper, MouseEventHandler mouseEventHandler) {
+        this.minesweeper = minesweeper;
+        this.mouseEventHandler = mouseEventHandler;
+        int height = minesweeper.getHeight();
+        int width = minesweeper.getWidth();
+        hintButton = null;
+        probabilities = null;
+        pressedRow = -1;
+        pressedCol = -1;
+
+        int oldHeight = cellButtons.length;
+        int oldWidth = oldHeight == 0 ? 0 : cellButtons[0].length;
+        if (height != oldHeight || width != oldWidth) {
+            resizeGrid(height, width, oldHeight, oldWidth);
+        }
+
+        // Put the buttons that were already there back the way they started.
+        for (int row = 0; row < Math.min(height, oldHeight); row++) {
+            for (int col = 0; col < Math.min(width, oldWidth); col++) {
+                cellImages[row][col].setImage(cellGraphics.get(CellGraphics.HIDDEN));
+                if (tints[row][col] != null) {
+                    tints[row][col].setVisible(false);
+                }
+                cellButtons[row][col].setStyle("");
+            }
+        }
+    }
+
+    /**
+     * Make the grid the new size, keeping every button that fits. Buttons outside the new size are
+     * removed, and new ones are only made for the cells that didn't exist before.
+     * @param height The new number of rows.
+     * @param width The new number of columns.
+     * @param oldHeight The number of rows there were.
+     * @param oldWidth The number of columns there were.
+     */
+    private void resizeGrid(int height, int width, int oldHeight, int oldWidth) {
+        List<Button> removed = new ArrayList<>();
+        for (int row = 0; row < oldHeight; row++) {
+            for (int col = 0; col < oldWidth; col++) {
+                if (row >= height || col >= width) {
+                    removed.add(cellButtons[row][col]);
+                }
+            }
+        }
+        if (!removed.isEmpty()) {
+            buttonGrid.getChildren().removeAll(new HashSet<>(removed));
+        }
+
+        Button[][] newButtons = new Button[height][width];
+        ImageView[][] newImages = new ImageView[height][width];
+        Rectangle[][] newTints = new Rectangle[height][width];
+        List<Button> added = new ArrayList<>();
+        for (int row = 0; row < height; row++) {
+            for (int col = 0; col < width; col++) {
+                if (row < oldHeight && col < oldWidth) {
+                    newButtons[row][col] = cellButtons[row][col];
+                    newImages[row][col] = cellImages[row][col];
+                    newTints[row][col] = tints[row][col];
+                } else {
+                    Button cellButton = createCellButton(row, col);
+                    GridPane.setConstraints(cellButton, col, row);
+                    newButtons[row][col] = cellButton;
+                    newImages[row][col] = (ImageView) ((StackPane) cellButton.getGraphic()).getChildren().get(0);
+                    added.add(cellButton);
+                }
+            }
+        }
+        buttonGrid.getChildren().addAll(added);
+        cellButtons = newButtons;
+        cellImages = newImages;
+        tints = newTints;
+    }
+
+    @Override
+    public void updateCells(ChangeSet changes) {
+        for (int i = 0; i < changes.size(); i++) {
+            int row = changes.getRow(i);
+            int col = changes.getCol(i);
+            updateCellAppearance(row, col);
+        }
+    }
+
+    @Override
+    public void showBomb(int row, int col) {
+        cellImages[row][col].setImage(cellGraphics.get(minesweeper.isExploded(row, col)
+                ? CellGraphics.EXPLODED_BOMB : CellGraphics.REVEALED_BOMB));
+    }
+
+    @Override
+    public void showHint(int row, int col) {
+        clearHint();
+        hintButton = cellButtons[row][col];
+        hintButton.setStyle(UIProperties.HINT_BORDER_STYLE);
+    }
+
+    @Override
+    public void clearHint() {
+        if (hintButton != null) {
+            hintButton.setStyle("");
+            hintButton = null;
+        }
+    }
+
+    @Override
+    public void showProbabilities(ProbabilityMap probabilities) {
+        this.probabilities = probabilities;
+        for (int row = 0; row < cellButtons.length; row++) {
+            for (int col = 0; col < cellButtons[row].length; col++) {
+                if (!minesweeper.isRevealed(row, col)) {
+                    updateTint(row, col);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void redraw() {
+        cellGraphics = CellGraphics.forSize(UIProperties.CELL_SIZE);
+        if (minesweeper == null) {
+            return;
+        }
+        for (int row = 0; row < cellButtons.length; row++) {
+            for (int col = 0; col < cellButtons[row].length; col++) {
+                updateCellAppearance(row, col);
+            }
+        }
+    }
+
+    /**
+     * Helper method to create individual cell buttons. Clicks are handled by the grid, not the Button.
+     * @param row The row of the game grid this button goes in.
+     * @param col The column of the game grid this button goes in.
+     * @return The newly created Button.
+     */
+    private Button createCellButton(int row, int col) {
+        Button cellButton = new Button();
+        cellButton.setMinSize(UIProperties.CELL_SIZE, UIProperties.CELL_SIZE);
+        cellButton.setMaxSize(UIProperties.CELL_SIZE, UIProperties.CELL_SIZE);
+        cellButton.setPrefSize(UIProperties.CELL_SIZE, UIProperties.CELL_SIZE);
+        StackPane graphic = new StackPane(new ImageView(cellGraphics.get(CellGraphics.HIDDEN)));
+        graphic.setMouseTransparent(true);
+        cellButton.setGraphic(graphic);
+        return cellButton;
+    }
+
+    /**
+     * Figure out which cell is under the mouse, and pass the press along to the MouseEventHandler.
+     * @param event The mouse event received.
+     */
+    private void handleMousePressed(MouseEvent event) {
+        int row = rowAt(event.getY());
+        int col = colAt(event.getX());
+        if (minesweeper == null || !minesweeper.isInBounds(row, col)) {
+            return;
+        }
+        // Remember which cell the first button went down on, so the release goes to the same cell.
+        if (pressedRow < 0) {
+            pressedRow = row;
+            pressedCol = col;
+        }
+        mouseEventHandler.handleMousePressed(event, row, col);
+    }
+
+    /**
+     * Pass a mouse release along to the MouseEventHandler. The click only counts if the mouse is
+     * still over the cell it was pressed on (just like it would for the Button itself).
+     * @param event The mouse event received.
+     */
+    private void handleMouseReleased(MouseEvent event) {
+        if (pressedRow < 0) {
+            return;
+        }
+        boolean isHover = rowAt(event.getY()) == pressedRow && colAt(event.getX()) == pressedCol;
+        mouseEventHandler.handleMouseReleased(event, isHover, pressedRow, pressedCol);
+        if (!event.isPrimaryButtonDown() && !event.isSecondaryButtonDown() && !event.isMiddleButtonDown()) {
+            pressedRow = -1;
+            pressedCol = -1;
+        }
+    }
+
+    private int rowAt(double y) {
+        return (int) Math.floor((y - buttonGrid.getPadding().getTop()) / UIProperties.CELL_SIZE);
+    }
+
+    private int colAt(double x) {
+        return (int) Math.floor((x - buttonGrid.getPadding().getLeft()) / UIProperties.CELL_SIZE);
+    }
+
+    /**
+     * Update the appearance of the cell after the user interacts with it, by showing the image
+     * for its new state.
+     * @param row The row of the game cell.
+     * @param col The column of the game cell.
+     */
+    public void updateCellAppearance(int row, int col) {
+        cellImages[row][col].setImage(cellGraphics.get(CellGraphics.stateOf(minesweeper, row, col)));
+        updateTint(row, col);
+    }
+
+    /**
+     * Show (or hide) the probability overlay on a cell. Only hidden cells get one.
+     * @param row The row of the game cell.
+     * @param col The column of the game cell.
+     */
+    private void updateTint(int row, int col) {
+        Rectangle tint = tints[row][col];
+        if (probabilities == null || minesweeper.isRevealed(row, col)) {
+            if (tint != null) {
+                tint.setVisible(false);
+            }
+            return;
+        }
+        if (tint == null) {
+            tint = new Rectangle(UIProperties.CELL_SIZE, UIProperties.CELL_SIZE);
+            tint.setOpacity(UIProperties.PROBABILITY_OPACITY);
+            tint.setMouseTransparent(true);
+            ((StackPane) cellButtons[row][col].getGraphic()).getChildren().add(tint);
+            tints[row][col] = tint;
+        }
+        tint.setFill(UIProperties.PROBABILITY_SAFE_COLOR.interpolate(UIProperties.PROBABILITY_MINE_COLOR,
+                probabilities.getProbability(row, col)));
+        tint.setVisible(true);
+    }
+}
@@ -0,0 +1,478 @@
+package com.chazwinter.minesweeper.ui;
+
+import com.chazwinter.minesweeper.model.ChangeSet;
+import com.chazwinter.minesweeper.model.Minesweeper;
+import com.chazwinter.minesweeper.solver.ProbabilityMap;
+import com.chazwinter.minesweeper.util.UIProperties;
+import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * A renderer that draws the board onto one Canvas instead of using a Button per cell.
+ * The Canvas is only as big as the window, not the board: it's a viewport that you can
+ * scroll around (scroll bars, mouse wheel, or left-drag) and zoom (Ctrl + mouse wheel).
+ * Only the cells you can actually see get painted, so a 5000x5000 board costs the same to
+ * draw as one that fits on screen.
+ */
+public class CanvasBoardView implements BoardView {
+    private static final double MIN_ZOOM = 0.25;
+    private static final double MAX_ZOOM = 4.0;
+    private static final double ZOOM_STEP = 1.1;
+    /* Below this many pixels per cell, numbers and images are unreadable anyway,
+        so cells are drawn as flat colors instead. */
+    private static final double DETAIL_CELL_SIZE = 8;
+    private static final double DRAG_THRESHOLD = 4;
+
+    private final BorderPane viewport;
+    private final Pane canvasHolder;
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final ScrollBar hBar = new ScrollBar();
+    private final ScrollBar vBar = new ScrollBar();
+    private Minesweeper minesweeper;
+    private MouseEventHandler mouseEventHandler;
+    private double cellSize = UIProperties.CELL_SIZE;
+    private boolean showBombs;
+    private boolean repaintRequested;
+    private int hintRow = -1;
+    private int hintCol = -1;
+    private ProbabilityMap probabilities;
+
+    private int pressedRow = -1;
+    private int pressedCol = -1;
+    private double dragStartX;
+    private double dragStartY;
+    private boolean dragging;
+
+    /**
+     * Constructor for the Canvas board. The board size is set by newGame().
+     */
+    public CanvasBoardView() {
+        canvas = new Canvas();
+        gc = canvas.getGraphicsContext2D();
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+
+        // The Canvas always fills whatever space it's given, and we paint the visible part of the board into it.
+        canvasHolder = new Pane(canvas);
+        canvasHolder.setMinSize(0, 0);
+        canvas.widthProperty().bind(canvasHolder.widthProperty());
+        canvas.heightProperty().bind(canvasHolder.heightProperty());
+        canvas.widthProperty().addListener((obs, oldValue, newValue) -> updateScrollBars());
+        canvas.heightProperty().addListener((obs, oldValue, newValue) -> updateScrollBars());
+
+        vBar.setOrientation(Orientation.VERTICAL);
+        hBar.valueProperty().addListener((obs, oldValue, newValue) -> requestRepaint());
+        vBar.valueProperty().addListener((obs, oldValue, newValue) -> requestRepaint());
+
+        canvas.addEventHandler(MouseEvent.MOUSE_PRESSED, this::handleMousePressed);
+        canvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, this::handleMouseDragged);
+        canvas.addEventHandler(MouseEvent.MOUSE_RELEASED, this::handleMouseReleased);
+        canvas.addEventHandler(ScrollEvent.SCROLL, this::handleScroll);
+
+        viewport = new BorderPane(canvasHolder);
+        viewport.setRight(vBar);
+        viewport.setBottom(hBar);
+        viewport.setPadding(UIProperties.INSETS);
+        // Never stretch past the board itself, so small boards stay centered in the window.
+        viewport.setMaxSize(Region.USE_PREF_SIZE, Region.USE_PREF_SIZE);
+    }
+
+    @Override
+    public Node getNode() {
+        return viewport;
+    }
+
+    @Override
+    public void newGame(Minesweeper minesweeper, MouseEventHandler mouseEventHandler) {
+        this.minesweeper = minesweeper;
+        this.mouseEventHandler = mouseEventHandler;
+        pressedRow = -1;
+        pressedCol = -1;
+        showBombs = false;
+        hintRow = -1;
+        hintCol = -1;
+        probabilities = null;
+        hBar.setValue(0);
+        vBar.setValue(0);
+        setCellSize(UIProperties.CELL_SIZE);
+    }
+
+    @Override
+    public void updateCells(ChangeSet changes) {
+        // If more cells changed than fit on screen, it's cheaper to just paint the screen.
+        if (changes.size() > visibleRows() * visibleCols()) {
+            repaint();
+            return;
+        }
+        for (int i = 0; i < changes.size(); i++) {
+            int row = changes.getRow(i);
+            int col = changes.getCol(i);
+            if (isVisible(row, col)) {
+                drawCell(row, col);
+            }
+        }
+    }
+
+    @Override
+    public void showBomb(int row, int col) {
+        showBombs = true;
+        if (isVisible(row, col)) {
+            drawCell(row, col);
+        }
+    }
+
+    @Override
+    public void showHint(int row, int col) {
+        clearHint();
+        hintRow = row;
+        hintCol = col;
+        if (isVisible(row, col)) {
+            drawCell(row, col);
+        }
+    }
+
+    @Override
+    public void clearHint() {
+        int row = hintRow;
+        int col = hintCol;
+        hintRow = -1;
+        hintCol = -1;
+        if (row >= 0 && isVisible(row, col)) {
+            drawCell(row, col);
+        }
+    }
+
+    @Override
+    public void redraw() {
+        updateFont();   // The cell font may have just finished loading.
+        repaint();
+    }
+
+    @Override
+    public void showProbabilities(ProbabilityMap probabilities) {
+        this.probabilities = probabilities;
+        requestRepaint();
+    }
+
+    /**
+     * Change the zoom level. The board's preferred size follows the zoom, so the window
+     * layout knows how much room a fully visible board would take.
+     * @param newCellSize How many pixels wide and tall each cell should be.
+     */
+    private void setCellSize(double newCellSize) {
+        cellSize = newCellSize;
+        updateFont();
+        canvasHolder.setPrefSize(minesweeper.getWidth() * cellSize, minesweeper.getHeight() * cellSize);
+        updateScrollBars();
+    }
+
+    /**
+     * Size the cell font to the zoom level (it isn't drawn at all when the cells are too small).
+     */
+    private void updateFont() {
+        if (cellSize >= DETAIL_CELL_SIZE) {
+            double zoom = cellSize / UIProperties.CELL_SIZE;
+            gc.setFont(Font.font(UIProperties.getCellFont().getFamily(), UIProperties.CELL_FONT_SIZE * zoom));
+        }
+    }
+
+    /**
+     * Match the scroll bars to the part of the board that fits in the viewport, and only
+     * show them when the board doesn't fit.
+     */
+    private void updateScrollBars() {
+        if (minesweeper == null) {
+            return;
+        }
+        double viewWidth = canvas.getWidth();
+        double viewHeight = canvas.getHeight();
+        double boardWidth = minesweeper.getWidth() * cellSize;
+        double boardHeight = minesweeper.getHeight() * cellSize;
+        configureScrollBar(hBar, boardWidth, viewWidth);
+        configureScrollBar(vBar, boardHeight, viewHeight);
+        requestRepaint();
+    }
+
+    /**
+     * Helper method to set up one scroll bar.
+     * @param bar The scroll bar.
+     * @param boardSize The size of the whole board in pixels, in the scroll bar's direction.
+     * @param viewSize The size of the viewport in pixels, in the same direction.
+     */
+    private void configureScrollBar(ScrollBar bar, double boardSize, double viewSize) {
+        double max = Math.max(0, boardSize - viewSize);
+        bar.setMin(0);
+        bar.setMax(max);
+        bar.setVisibleAmount(max == 0 ? 0 : viewSize * max / boardSize);
+        bar.setUnitIncrement(cellSize);
+        bar.setBlockIncrement(viewSize * 0.9);
+        bar.setValue(Math.min(bar.getValue(), max));
+        boolean needed = max > 0;
+        bar.setVisible(needed);
+        bar.setManaged(needed);
+    }
+
+    /**
+     * Ask for the viewport to be repainted. Scrolling, zooming and resizing can each ask
+     * several times in a row, so the actual painting waits until they're all done.
+     */
+    private void requestRepaint() {
+        if (!repaintRequested) {
+            repaintRequested = true;
+            Platform.runLater(this::repaint);
+        }
+    }
+
+    /**
+     * Paint every cell that is visible in the viewport, and nothing else.
+     */
+    private void repaint() {
+        repaintRequested = false;
+        if (minesweeper == null) {
+            return;
+        }
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        int firstRow = firstVisibleRow();
+        int firstCol = firstVisibleCol();
+        int lastRow = Math.min(minesweeper.getHeight() - 1, firstRow + visibleRows() - 1);
+        int lastCol = Math.min(minesweeper.getWidth() - 1, firstCol + visibleCols() - 1);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                drawCell(row, col);
+            }
+        }
+    }
+
+    /**
+     * Draw a single cell based on its current state in the game.
+     * @param row The row of the cell to draw.
+     * @param col The column of the cell to draw.
+     */
+    private void drawCell(int row, int col) {
+        double x = col * cellSize - hBar.getValue();
+        double y = row * cellSize - vBar.getValue();
+        boolean isRevealed = minesweeper.isRevealed(row, col);
+        boolean isBomb = minesweeper.isBomb(row, col);
+        if (cellSize < DETAIL_CELL_SIZE) {
+            drawSimpleCell(row, col, x, y);
+        } else if (!isRevealed && isBomb && showBombs) {  // Debugging cheat code
+            drawImage(UIProperties.REVEALED_BOMB_IMG, x, y);
+        } else if (!isRevealed) {
+            drawImage(minesweeper.isFlagged(row, col) ? UIProperties.FLAGGED_CELL_IMG : UIProperties.NO_CELL_IMG, x, y);
+        } else if (isBomb && minesweeper.isExploded(row, col)) { // Endgame only - show which cell you screwed up on.
+            drawImage(UIProperties.CLICKED_BOMB_IMG, x, y);
+        } else if (isBomb) { // Endgame only - show where the rest of the bombs were.
+            drawImage(UIProperties.REVEALED_BOMB_IMG, x, y);
+        } else {    // Cell is not a Bomb.
+            gc.setFill(UIProperties.CLICKED_CELL_COLOR);
+            gc.fillRect(x, y, cellSize, cellSize);
+            drawBorder(x, y);
+            int neighborMines = minesweeper.getNeighborMines(row, col);
+            if (neighborMines != 0) {
+                String text = String.valueOf(neighborMines);
+                gc.setFill(UIProperties.COLOR_MAP.get(neighborMines));
+                gc.fillText(text, x + cellSize / 2, y + cellSize / 2);
+                gc.setStroke(UIProperties.CELL_TEXT_STROKE_COLOR);
+                gc.setLineWidth(UIProperties.CELL_TEXT_STROKE_WIDTH);
+                gc.strokeText(text, x + cellSize / 2, y + cellSize / 2);
+            }
+        }
+        if (probabilities != null && !isRevealed) {
+            gc.setGlobalAlpha(UIProperties.PROBABILITY_OPACITY);
+            gc.setFill(UIProperties.PROBABILITY_SAFE_COLOR.interpolate(UIProperties.PROBABILITY_MINE_COLOR,
+                    probabilities.getProbability(row, col)));
+            gc.fillRect(x, y, cellSize, cellSize);
+            gc.setGlobalAlpha(1);
+        }
+        if (row == hintRow && col == hintCol) {
+            double inset = UIProperties.HINT_BORDER_WIDTH / 2;
+            gc.setStroke(UIProperties.HINT_BORDER_COLOR);
+            gc.setLineWidth(UIProperties.HINT_BORDER_WIDTH);
+            gc.strokeRect(x + inset, y + inset, cellSize - 2 * inset, cellSize - 2 * inset);
+        }
+    }
+
+    /**
+     * Draw a cell as a single flat color, for when you're zoomed too far out to see any detail.
+     * @param row The row of the cell to draw.
+     * @param col The column of the cell to draw.
+     * @param x The left edge of the cell on the Canvas.
+     * @param y The top edge of the cell on the Canvas.
+     */
+    private void drawSimpleCell(int row, int col, double x, double y) {
+        if (!minesweeper.isRevealed(row, col)) {
+            gc.setFill(minesweeper.isFlagged(row, col) ? UIProperties.COLOR_MAP.get(4) : UIProperties.CELL_BORDER_COLOR);
+        } else if (minesweeper.isBomb(row, col)) {
+            gc.setFill(UIProperties.CELL_TEXT_STROKE_COLOR);
+        } else if (minesweeper.getNeighborMines(row, col) != 0) {
+            gc.setFill(UIProperties.COLOR_MAP.get(minesweeper.getNeighborMines(row, col)));
+        } else {
+            gc.setFill(UIProperties.CLICKED_CELL_COLOR);
+        }
+        gc.fillRect(x, y, cellSize, cellSize);
+    }
+
+    /**
+     * Helper method to draw one of the cell images over a cell, with a border around it.
+     * @param image The image to draw.
+     * @param x The left edge of the cell on the Canvas.
+     * @param y The top edge of the cell on the Canvas.
+     */
+    private void drawImage(Image image, double x, double y) {
+        gc.clearRect(x, y, cellSize, cellSize);
+        gc.drawImage(image, x, y, cellSize, cellSize);
+        drawBorder(x, y);
+    }
+
+    /**
+     * Helper method to draw the thin border around a cell, like CELL_BORDER_STYLE does for Buttons.
+     * @param x The left edge of the cell on the Canvas.
+     * @param y The top edge of the cell on the Canvas.
+     */
+    private void drawBorder(double x, double y) {
+        double inset = UIProperties.CELL_BORDER_WIDTH / 2;
+        gc.setStroke(UIProperties.CELL_BORDER_COLOR);
+        gc.setLineWidth(UIProperties.CELL_BORDER_WIDTH);
+        gc.strokeRect(x + inset, y + inset, cellSize - 2 * inset, cellSize - 2 * inset);
+    }
+
+    /**
+     * Figure out which cell is under the mouse, and pass the press along to the MouseEventHandler.
+     * @param event The mouse event received.
+     */
+    private void handleMousePressed(MouseEvent event) {
+        if (pressedRow < 0) {
+            dragStartX = event.getX();
+            dragStartY = event.getY();
+            dragging = false;
+        }
+        int row = rowAt(event.getY());
+        int col = colAt(event.getX());
+        if (!minesweeper.isInBounds(row, col)) {
+            return;
+        }
+        // Remember which cell the first button went down on, so the release goes to the same cell.
+        if (pressedRow < 0) {
+            pressedRow = row;
+            pressedCol = col;
+        }
+        mouseEventHandler.handleMousePressed(event, row, col);
+    }
+
+    /**
+     * Dragging with the left button held down scrolls the board around, like a map.
+     * Once you've started dragging, letting go won't count as a click.
+     * @param event The mouse event received.
+     */
+    private void handleMouseDragged(MouseEvent event) {
+        if (!event.isPrimaryButtonDown() || event.isSecondaryButtonDown() || event.isMiddleButtonDown()) {
+            return;
+        }
+        double dx = event.getX() - dragStartX;
+        double dy = event.getY() - dragStartY;
+        if (!dragging && Math.hypot(dx, dy) < DRAG_THRESHOLD) {
+            return;
+        }
+        dragging = true;
+        scrollBy(-dx, -dy);
+        dragStartX = event.getX();
+        dragStartY = event.getY();
+    }
+
+    /**
+     * Pass a mouse release along to the MouseEventHandler. Just like a Button, the click only
+     * counts if the mouse is still over the cell it was pressed on.
+     * @param event The mouse event received.
+     */
+    private void handleMouseReleased(MouseEvent event) {
+        if (pressedRow < 0) {
+            return;
+        }
+        boolean isHover = !dragging && rowAt(event.getY()) == pressedRow && colAt(event.getX()) == pressedCol;
+        mouseEventHandler.handleMouseReleased(event, isHover, pressedRow, pressedCol);
+        if (!event.isPrimaryButtonDown() && !event.isSecondaryButtonDown() && !event.isMiddleButtonDown()) {
+            pressedRow = -1;
+            pressedCol = -1;
+            dragging = false;
+        }
+    }
+
+    /**
+     * The mouse wheel scrolls the board (hold Shift to scroll sideways), and Ctrl + mouse wheel
+     * zooms in and out around the mouse pointer.
+     * @param event The scroll event received.
+     */
+    private void handleScroll(ScrollEvent event) {
+        if (event.isControlDown()) {
+            double zoom = cellSize / UIProperties.CELL_SIZE;
+            double newZoom = event.getDeltaY() > 0 ? zoom * ZOOM_STEP : zoom / ZOOM_STEP;
+            newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, newZoom));
+            // Keep the point under the mouse in the same spot on screen.
+            double boardX = (hBar.getValue() + event.getX()) / cellSize;
+            double boardY = (vBar.getValue() + event.getY()) / cellSize;
+            setCellSize(UIProperties.CELL_SIZE * newZoom);
+            hBar.setValue(clamp(boardX * cellSize - event.getX(), hBar.getMax()));
+            vBar.setValue(clamp(boardY * cellSize - event.getY(), vBar.getMax()));
+        } else {
+            scrollBy(-event.getDeltaX(), -event.getDeltaY());
+        }
+        event.consume();
+    }
+
+    private void scrollBy(double dx, double dy) {
+        hBar.setValue(clamp(hBar.getValue() + dx, hBar.getMax()));
+        vBar.setValue(clamp(vBar.getValue() + dy, vBar.getMax()));
+    }
+
+    private static double clamp(double value, double max) {
+        return Math.max(0, Math.min(max, value));
+    }
+
+    private boolean isVisible(int row, int col) {
+        int firstRow = firstVisibleRow();
+        int firstCol = firstVisibleCol();
+        return row >= firstRow && row < firstRow + visibleRows()
+                && col >= firstCol && col < firstCol + visibleCols();
+    }
+
+    private int firstVisibleRow() {
+        return (int) (vBar.getValue() / cellSize);
+    }
+
+    private int firstVisibleCol() {
+        return (int) (hBar.getValue() / cellSize);
+    }
+
+    /* One extra row and column, for the partly visible cells at the edges. */
+    private int visibleRows() {
+        return (int) Math.ceil(canvas.getHeight() / cellSize) + 1;
+    }
+
+    private int visibleCols() {
+        return (int) Math.ceil(canvas.getWidth() / cellSize) + 1;
+    }
+
+    private int rowAt(double y) {
+        double boardY = y + vBar.getValue();
+        return boardY < 0 ? -1 : (int) (boardY / cellSize);
+    }
+
+    private int colAt(double x) {
+        double boardX = x + hBar.getValue();
+        return boardX < 0 ? -1 : (int) (boardX / cellSize);
+    }
+}
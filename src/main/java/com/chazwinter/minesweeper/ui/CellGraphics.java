@@ -0,0 +1,139 @@
+package com.chazwinter.minesweeper.ui;
+
+import com.chazwinter.minesweeper.model.Minesweeper;
+import com.chazwinter.minesweeper.util.UIProperties;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Text;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cell can only ever look one of 13 ways: hidden, flagged, revealed with 0-8 bombs around it,
+ * the bomb you clicked on, or one of the other bombs. Instead of building a StackPane, an ImageView
+ * and a Text for every cell every time it changes, each look is built once and snapshotted into
+ * an image, and cells just show the image for their state.
+ *
+ * The images are made the first time a cell size is asked for, so this has to be used from the
+ * JavaFX Application Thread (that's where snapshot() works).
+ */
+public class CellGraphics {
+    public static final int HIDDEN = 0;
+    public static final int FLAGGED = 1;
+    private static final int REVEALED = 2;  // REVEALED + n is a revealed cell with n bombs around it.
+    public static final int EXPLODED_BOMB = 11;
+    public static final int REVEALED_BOMB = 12;
+    private static final int NUM_STATES = 13;
+
+    private static final Map<Double, CellGraphics> CACHE = new HashMap<>();
+
+    private final Image[] images = new Image[NUM_STATES];
+
+    /**
+     * Get the images for cells of a certain size, building them if this is the first time.
+     * Until the cell images and font in UIProperties have loaded, the result is only a placeholder
+     * (borders and backgrounds, no pictures, the default font), and it isn't kept. Ask again once they're loaded.
+     * @param cellSize The width and height of a cell, in pixels.
+     * @return The images for every cell state at that size.
+     */
+    public static CellGraphics forSize(double cellSize) {
+        if (!UIProperties.areResourcesLoaded()) {
+            return new CellGraphics(cellSize);
+        }
+        return CACHE.computeIfAbsent(cellSize, CellGraphics::new);
+    }
+
+    private CellGraphics(double cellSize) {
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        images[HIDDEN] = snapshot(buildImageCell(UIProperties.NO_CELL_IMG, cellSize), parameters);
+        images[FLAGGED] = snapshot(buildImageCell(UIProperties.FLAGGED_CELL_IMG, cellSize), parameters);
+        for (int neighborMines = 0; neighborMines <= 8; neighborMines++) {
+            images[REVEALED + neighborMines] = snapshot(buildRevealedCell(neighborMines, cellSize), parameters);
+        }
+        images[EXPLODED_BOMB] = snapshot(buildImageCell(UIProperties.CLICKED_BOMB_IMG, cellSize), parameters);
+        images[REVEALED_BOMB] = snapshot(buildImageCell(UIProperties.REVEALED_BOMB_IMG, cellSize), parameters);
+    }
+
+    /**
+     * Figure out which of the looks a cell should have right now.
+     * @param minesweeper The game the cell is in.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The cell's state, for get().
+     */
+    public static int stateOf(Minesweeper minesweeper, int row, int col) {
+        if (!minesweeper.isRevealed(row, col)) {
+            return minesweeper.isFlagged(row, col) ? FLAGGED : HIDDEN;
+        } else if (minesweeper.isBomb(row, col)) {
+            return minesweeper.isExploded(row, col) ? EXPLODED_BOMB : REVEALED_BOMB;
+        }
+        return revealedWith(minesweeper.getNeighborMines(row, col));
+    }
+
+    /**
+     * @param neighborMines How many bombs are around a revealed cell.
+     * @return The state of a revealed cell (that isn't a bomb) with that many bombs around it.
+     */
+    public static int revealedWith(int neighborMines) {
+        return REVEALED + neighborMines;
+    }
+
+    /**
+     * @param state One of the cell states (see stateOf()).
+     * @return The image for that state.
+     */
+    public Image get(int state) {
+        return images[state];
+    }
+
+    private static Image snapshot(StackPane stackPane, SnapshotParameters parameters) {
+        return stackPane.snapshot(parameters, new WritableImage((int) Math.ceil(stackPane.getPrefWidth()),
+                (int) Math.ceil(stackPane.getPrefHeight())));
+    }
+
+    /**
+     * Build a cell that's just one of the cell images with a border, like a hidden cell or a bomb.
+     */
+    private static StackPane buildImageCell(Image image, double cellSize) {
+        StackPane stackPane = buildCell(cellSize);
+        ImageView imageView = new ImageView(image);
+        imageView.setFitWidth(cellSize);
+        imageView.setFitHeight(cellSize);
+        imageView.setPreserveRatio(true);
+        stackPane.getChildren().add(imageView);
+        return stackPane;
+    }
+
+    /**
+     * Build a revealed cell that isn't a bomb: grey, with the number of bombs around it (if any).
+     */
+    private static StackPane buildRevealedCell(int neighborMines, double cellSize) {
+        StackPane stackPane = buildCell(cellSize);
+        stackPane.setStyle(UIProperties.CLICKED_CELL_BG_COLOR + UIProperties.CELL_BORDER_STYLE);
+        if (neighborMines != 0) {
+            Text cellText = new Text(String.valueOf(neighborMines));
+            cellText.setFont(UIProperties.getCellFont());
+            cellText.setStroke(UIProperties.CELL_TEXT_STROKE_COLOR);
+            cellText.setStrokeWidth(UIProperties.CELL_TEXT_STROKE_WIDTH);
+            cellText.setFill(UIProperties.COLOR_MAP.get(neighborMines));
+            stackPane.getChildren().add(cellText);
+        }
+        return stackPane;
+    }
+
+    private static StackPane buildCell(double cellSize) {
+        StackPane stackPane = new StackPane();
+        stackPane.setStyle(UIProperties.CELL_BORDER_STYLE);
+        stackPane.setMinSize(cellSize, cellSize);
+        stackPane.setPrefSize(cellSize, cellSize);
+        stackPane.setMaxSize(cellSize, cellSize);
+        stackPane.resize(cellSize, cellSize);   // It has no parent to lay it out.
+        return stackPane;
+    }
+}
@@ -0,0 +1,244 @@
+package com.chazwinter.minesweeper.ui;
+
+import com.chazwinter.minesweeper.endless.ChunkedBoard;
+import com.chazwinter.minesweeper.util.UIProperties;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+
+/**
+ * Draws an endless board on a Canvas the size of the window. Like CanvasBoardView, only the cells
+ * you can see get painted, but there are no scroll bars since there's no edge to scroll to:
+ * drag with the left button (or use the mouse wheel) to move around, and Ctrl + mouse wheel to zoom.
+ * Left-click reveals (or chords, on a number), right-click flags, and middle-click chords.
+ */
+public class EndlessBoardView {
+    private static final double DRAG_THRESHOLD = 4;
+    private static final int DEFAULT_ZOOM_LEVEL = 2;
+
+    private final Pane canvasHolder;
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final Runnable afterMove;
+    private ChunkedBoard board;
+    private CellGraphics graphics;
+    private int zoomLevel = DEFAULT_ZOOM_LEVEL;
+    private double cellSize = UIProperties.CELL_SIZE;
+    /* Where the middle of the viewport is on the board, in pixels. Cell (0, 0) starts at (0, 0).
+        Keeping the middle (instead of a corner) keeps the board centered when the window is resized. */
+    private double centerX;
+    private double centerY;
+    private boolean repaintRequested;
+
+    private double dragStartX;
+    private double dragStartY;
+    private boolean dragging;
+
+    /**
+     * Constructor for the endless board view. The board itself is set by newGame().
+     * @param afterMove What to run after every move the player makes (to update the score, for example).
+     */
+    public EndlessBoardView(Runnable afterMove) {
+        this.afterMove = afterMove;
+        canvas = new Canvas();
+        gc = canvas.getGraphicsContext2D();
+        canvasHolder = new Pane(canvas);
+        canvasHolder.setMinSize(0, 0);
+        canvas.widthProperty().bind(canvasHolder.widthProperty());
+        canvas.heightProperty().bind(canvasHolder.heightProperty());
+        canvas.widthProperty().addListener((obs, oldValue, newValue) -> requestRepaint());
+        canvas.heightProperty().addListener((obs, oldValue, newValue) -> requestRepaint());
+
+        canvas.addEventHandler(MouseEvent.MOUSE_PRESSED, this::handleMousePressed);
+        canvas.addEventHandler(MouseEvent.MOUSE_DRAGGED, this::handleMouseDragged);
+        canvas.addEventHandler(MouseEvent.MOUSE_RELEASED, this::handleMouseReleased);
+        canvas.addEventHandler(ScrollEvent.SCROLL, this::handleScroll);
+        graphics = CellGraphics.forSize(cellSize);
+    }
+
+    public Node getNode() {
+        return canvasHolder;
+    }
+
+    /**
+     * Show a new board, zoomed back to normal, with the safe starting cell in the middle of the window.
+     * @param board The board to show.
+     */
+    public void newGame(ChunkedBoard board) {
+        this.board = board;
+        zoomLevel = DEFAULT_ZOOM_LEVEL;
+        cellSize = UIProperties.CELL_SIZE * UIProperties.ENDLESS_ZOOM_LEVELS[zoomLevel];
+        graphics = CellGraphics.forSize(cellSize);
+        centerX = cellSize / 2;
+        centerY = cellSize / 2;
+        dragging = false;
+        requestRepaint();
+    }
+
+    /**
+     * Draw everything again, for when the cell images and font have finished loading.
+     */
+    public void redraw() {
+        graphics = CellGraphics.forSize(cellSize);
+        repaint();
+    }
+
+    /**
+     * Ask for the viewport to be repainted once the current event is done, so a burst of
+     * drags, scrolls and resizes only paints once.
+     */
+    private void requestRepaint() {
+        if (!repaintRequested) {
+            repaintRequested = true;
+            Platform.runLater(this::repaint);
+        }
+    }
+
+    /**
+     * Paint every cell that's visible in the viewport. Looking at a part of the board makes its
+     * chunks, so the chunk cache always holds at least what's on screen.
+     */
+    private void repaint() {
+        repaintRequested = false;
+        if (board == null) {
+            return;
+        }
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        int firstRow = rowAt(0);
+        int firstCol = colAt(0);
+        int lastRow = rowAt(canvas.getHeight());
+        int lastCol = colAt(canvas.getWidth());
+        for (int row = firstRow; row <= lastRow; row++) {
+            double y = row * cellSize - viewTop();
+            for (int col = firstCol; col <= lastCol; col++) {
+                gc.drawImage(graphics.get(stateOf(row, col)), col * cellSize - viewLeft(), y, cellSize, cellSize);
+            }
+        }
+    }
+
+    /**
+     * Figure out which of the CellGraphics looks a cell should have. Once the game is over,
+     * every bomb on screen is shown.
+     */
+    private int stateOf(int row, int col) {
+        if (board.isRevealed(row, col)) {
+            if (!board.isBomb(row, col)) {
+                return CellGraphics.revealedWith(board.getNeighborMines(row, col));
+            }
+            return board.isExploded(row, col) ? CellGraphics.EXPLODED_BOMB : CellGraphics.REVEALED_BOMB;
+        } else if (board.isFlagged(row, col)) {
+            return CellGraphics.FLAGGED;
+        } else if (board.isGameOver() && board.isBomb(row, col)) {
+            return CellGraphics.REVEALED_BOMB;
+        }
+        return CellGraphics.HIDDEN;
+    }
+
+    private void handleMousePressed(MouseEvent event) {
+        if (board == null) {
+            return;
+        }
+        if (event.getButton() == MouseButton.PRIMARY) {
+            dragStartX = event.getX();
+            dragStartY = event.getY();
+            dragging = false;
+        } else if (event.getButton() == MouseButton.SECONDARY) {
+            board.toggleFlag(rowAt(event.getY()), colAt(event.getX()));
+            finishMove();
+        }
+    }
+
+    /**
+     * Dragging with the left button held down moves the board around. Once you've started
+     * dragging, letting go won't count as a click.
+     */
+    private void handleMouseDragged(MouseEvent event) {
+        if (!event.isPrimaryButtonDown()) {
+            return;
+        }
+        double dx = event.getX() - dragStartX;
+        double dy = event.getY() - dragStartY;
+        if (!dragging && Math.hypot(dx, dy) < DRAG_THRESHOLD) {
+            return;
+        }
+        dragging = true;
+        centerX -= dx;
+        centerY -= dy;
+        dragStartX = event.getX();
+        dragStartY = event.getY();
+        requestRepaint();
+    }
+
+    private void handleMouseReleased(MouseEvent event) {
+        if (board == null) {
+            return;
+        }
+        int row = rowAt(event.getY());
+        int col = colAt(event.getX());
+        if (event.getButton() == MouseButton.PRIMARY && !dragging) {
+            if (board.isRevealed(row, col)) {
+                board.chord(row, col);
+            } else {
+                board.reveal(row, col);
+            }
+            finishMove();
+        } else if (event.getButton() == MouseButton.MIDDLE) {
+            board.chord(row, col);
+            finishMove();
+        }
+        if (event.getButton() == MouseButton.PRIMARY) {
+            dragging = false;
+        }
+    }
+
+    /**
+     * The mouse wheel moves the board (hold Shift to move sideways), and Ctrl + mouse wheel
+     * zooms in and out around the mouse pointer.
+     */
+    private void handleScroll(ScrollEvent event) {
+        if (event.isControlDown()) {
+            int newZoomLevel = zoomLevel + (event.getDeltaY() > 0 ? 1 : -1);
+            if (newZoomLevel >= 0 && newZoomLevel < UIProperties.ENDLESS_ZOOM_LEVELS.length) {
+                // Keep the point under the mouse in the same spot on screen.
+                double boardX = (viewLeft() + event.getX()) / cellSize;
+                double boardY = (viewTop() + event.getY()) / cellSize;
+                zoomLevel = newZoomLevel;
+                cellSize = UIProperties.CELL_SIZE * UIProperties.ENDLESS_ZOOM_LEVELS[zoomLevel];
+                graphics = CellGraphics.forSize(cellSize);
+                centerX = boardX * cellSize - event.getX() + canvas.getWidth() / 2;
+                centerY = boardY * cellSize - event.getY() + canvas.getHeight() / 2;
+            }
+        } else {
+            centerX -= event.getDeltaX();
+            centerY -= event.getDeltaY();
+        }
+        requestRepaint();
+        event.consume();
+    }
+
+    private void finishMove() {
+        repaint();
+        afterMove.run();
+    }
+
+    private double viewLeft() {
+        return centerX - canvas.getWidth() / 2;
+    }
+
+    private double viewTop() {
+        return centerY - canvas.getHeight() / 2;
+    }
+
+    private int rowAt(double y) {
+        return (int) Math.floor((viewTop() + y) / cellSize);
+    }
+
+    private int colAt(double x) {
+        return (int) Math.floor((viewLeft() + x) / cellSize);
+    }
+}
@@ -0,0 +1,124 @@
+package com.chazwinter.minesweeper.ui;
+
+import com.chazwinter.minesweeper.endless.ChunkedBoard;
+import com.chazwinter.minesweeper.util.SoundManager;
+import com.chazwinter.minesweeper.util.UIProperties;
+import javafx.application.Platform;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds the window for endless mode: a board with no edges, a score (how many cells you've
+ * revealed), and a line showing how many chunks are in memory and how many went to disk.
+ */
+public class EndlessUIBuilder {
+    private final double density;
+    private final EndlessBoardView boardView = new EndlessBoardView(this::afterMove);
+    private final Label scoreLabel = new Label();
+    private final Label statusLabel = new Label();
+    private ChunkedBoard board;
+    private boolean gameOverShown;
+
+    /**
+     * Constructor for the endless mode UI.
+     * @param density The chance of each cell being a bomb (see ChunkedBoard).
+     */
+    public EndlessUIBuilder(double density) {
+        if (density < ChunkedBoard.MIN_DENSITY || density > ChunkedBoard.MAX_DENSITY) {
+            throw new IllegalArgumentException(String.format("Bomb density must be between %.2f and %.2f",
+                    ChunkedBoard.MIN_DENSITY, ChunkedBoard.MAX_DENSITY));
+        }
+        this.density = density;
+        UIProperties.whenResourcesLoaded(boardView::redraw);
+    }
+
+    /**
+     * Build the Scene for endless mode, and start the first game.
+     * @return The Scene to be displayed.
+     */
+    public Scene buildScene() {
+        HBox topButtonGroup = new HBox(UIProperties.BOX_SPACING);
+        topButtonGroup.setPadding(UIProperties.INSETS);
+        topButtonGroup.setAlignment(Pos.CENTER);
+
+        scoreLabel.setFont(UIProperties.getCounterFont());
+        UIProperties.whenResourcesLoaded(() -> scoreLabel.setFont(UIProperties.getCounterFont()));
+        scoreLabel.setTextFill(UIProperties.COUNTER_COLOR);
+        statusLabel.setFont(UIProperties.ENDLESS_STATUS_FONT);
+        statusLabel.setTextFill(UIProperties.SETTINGS_TEXT_COLOR);
+        HBox.setHgrow(scoreLabel, Priority.ALWAYS);
+        HBox.setHgrow(statusLabel, Priority.ALWAYS);
+        Button newGameButton = new Button("New Game");
+        newGameButton.setOnAction(e -> newGame());
+        Button exitButton = new Button("Exit");
+        exitButton.setOnAction(e -> Platform.exit());
+        topButtonGroup.getChildren().addAll(scoreLabel, newGameButton, exitButton, statusLabel);
+
+        BorderPane mainLayout = new BorderPane();
+        mainLayout.setStyle(UIProperties.BACKGROUND_COLOR);
+        mainLayout.setTop(topButtonGroup);
+        mainLayout.setCenter(boardView.getNode());
+
+        newGame();
+        return new Scene(mainLayout, UIProperties.ENDLESS_WINDOW_WIDTH, UIProperties.ENDLESS_WINDOW_HEIGHT);
+    }
+
+    /**
+     * Throw away the current board (and its chunks on disk) and start a new one with a new seed.
+     */
+    public void newGame() {
+        closeBoard();
+        try {
+            board = new ChunkedBoard(ThreadLocalRandom.current().nextLong(), density,
+                    ChunkedBoard.DEFAULT_MAX_LOADED_CHUNKS);
+        } catch (IOException e) {
+            System.out.println("Couldn't start an endless game: " + e.getMessage());
+            return;
+        }
+        gameOverShown = false;
+        boardView.newGame(board);
+        updateLabels();
+        System.out.println("A new endless game has been started. Seed: " + board.getSeed());
+    }
+
+    /**
+     * Clean up the chunks on disk before the app exits.
+     */
+    public void shutdown() {
+        closeBoard();
+    }
+
+    private void afterMove() {
+        updateLabels();
+        if (board.isGameOver() && !gameOverShown) {
+            gameOverShown = true;
+            SoundManager.playLoserSound();
+            System.out.printf("Game over! You revealed %d cells.%n", board.getCellsRevealed());
+        }
+    }
+
+    private void updateLabels() {
+        scoreLabel.setText(String.format("%03d", board.getCellsRevealed()));
+        statusLabel.setText(String.format("Flags: %d%nChunks in memory: %d%nChunks on disk: %d",
+                board.getFlagsPlaced(), board.getLoadedChunkCount(), board.getChunksOnDisk()));
+    }
+
+    private void closeBoard() {
+        if (board != null) {
+            try {
+                board.close();
+            } catch (IOException e) {
+                System.out.println("Couldn't clean up the endless board's chunk files: " + e.getMessage());
+            }
+            board = null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.chazwinter.minesweeper.ui;
+
+import com.chazwinter.minesweeper.model.ChangeSet;
+import com.chazwinter.minesweeper.perf.GameOverRevealEvent;
+import com.chazwinter.minesweeper.util.UIProperties;
+import javafx.animation.AnimationTimer;
+
+/**
+ * Shows the end-of-game reveal a little at a time, instead of redrawing the whole board in one go
+ * (which froze the window on big boards, right when the sound starts playing).
+ * Every frame it draws cells until it runs out of its time budget, then lets the frame go.
+ * The cells can be drawn in rings spreading out from the last cell you clicked.
+ */
+public class GameOverReveal extends AnimationTimer {
+    /* How many cells to draw between checks of the clock. */
+    private static final int BATCH_SIZE = 64;
+
+    private final BoardView boardView;
+    private final int[] cells;
+    private final ChangeSet batch;
+    private final int width;
+    private final int height;
+    private int next;
+
+    /**
+     * Get the reveal ready. Call start() to begin drawing.
+     * @param boardView The board to draw on.
+     * @param changes The cells revealed at the end of the game. They're copied, since the
+     *                game reuses its ChangeSet.
+     * @param width The width of the board.
+     * @param height The height of the board.
+     * @param originRow The row to spread out from, or -1 to go in board order.
+     * @param originCol The column to spread out from.
+     */
+    public GameOverReveal(BoardView boardView, ChangeSet changes, int width, int height, int originRow, int originCol) {
+        this.boardView = boardView;
+        this.batch = new ChangeSet(width);
+        this.width = width;
+        this.height = height;
+        int[] indices = new int[changes.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = changes.getIndex(i);
+        }
+        cells = originRow < 0 ? indices : sortByDistance(indices, width, height, originRow, originCol);
+    }
+
+    @Override
+    public void handle(long now) {
+        GameOverRevealEvent event = new GameOverRevealEvent();
+        event.begin();
+        int start = next;
+        long deadline = System.nanoTime() + UIProperties.GAME_OVER_REVEAL_FRAME_BUDGET_NANOS;
+        do {
+            batch.clear();
+            int end = Math.min(next + BATCH_SIZE, cells.length);
+            for (; next < end; next++) {
+                batch.add(cells[next]);
+            }
+            boardView.updateCells(batch);
+        } while (next < cells.length && System.nanoTime() < deadline);
+        if (event.shouldCommit()) {
+            event.height = height;
+            event.width = width;
+            event.cellsDrawn = next - start;
+            event.cellsRemaining = cells.length - next;
+            event.commit();
+        }
+        if (next == cells.length) {
+            stop();
+        }
+    }
+
+    /**
+     * Stop drawing (a new game started). Whatever wasn't drawn yet is just dropped.
+     */
+    public void cancel() {
+        stop();
+        next = cells.length;
+    }
+
+    /**
+     * Order the cells by how far they are from the origin (counting diagonal steps as 1),
+     * so the reveal spreads out in square rings. It's a counting sort, since distances are small.
+     */
+    private static int[] sortByDistance(int[] indices, int width, int height, int originRow, int originCol) {
+        int maxDistance = Math.max(width, height);
+        int[] starts = new int[maxDistance + 1];
+        int[] distances = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            int row = indices[i] / width;
+            int col = indices[i] % width;
+            distances[i] = Math.max(Math.abs(row - originRow), Math.abs(col - originCol));
+            starts[distances[i]]++;
+        }
+        for (int d = 0, total = 0; d <= maxDistance; d++) {
+            int count = starts[d];
+            starts[d] = total;
+            total += count;
+        }
+        int[] sorted = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            sorted[starts[distances[i]]++] = indices[i];
+        }
+        return sorted;
+    }
+}
@@ -1,55 +1,122 @@
 package com.chazwinter.minesweeper.ui;
 
 import com.chazwinter.minesweeper.util.UIProperties;
-import com.chazwinter.minesweeper.model.Cell;
+import com.chazwinter.minesweeper.model.BoardPregenerator;
+import com.chazwinter.minesweeper.model.ChangeSet;
+import com.chazwinter.minesweeper.model.GameListener;
 import com.chazwinter.minesweeper.model.Minesweeper;
+import com.chazwinter.minesweeper.model.MoveType;
+import com.chazwinter.minesweeper.perf.GridRebuildEvent;
+import com.chazwinter.minesweeper.perf.PerfAction;
+import com.chazwinter.minesweeper.perf.PerfMonitor;
+import com.chazwinter.minesweeper.recording.GameRecorder;
+import com.chazwinter.minesweeper.recording.RecordingFormat;
+import com.chazwinter.minesweeper.recording.SavedGame;
 import com.chazwinter.minesweeper.settings.GameSettings;
+import com.chazwinter.minesweeper.solver.DeductionSolver;
+import com.chazwinter.minesweeper.solver.NoGuessBoardGenerator;
+import com.chazwinter.minesweeper.solver.ProbabilityEngine;
+import com.chazwinter.minesweeper.util.SoundManager;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.geometry.Pos;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import javafx.scene.image.ImageView;
-import javafx.scene.input.MouseEvent;
+import javafx.scene.input.KeyCode;
 import javafx.scene.layout.BorderPane;
-import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
-import javafx.scene.text.Text;
 import javafx.stage.Modality;
+import javafx.stage.Screen;
 import javafx.stage.Stage;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+public class MinesweeperUIBuilder implements GameListener {
+    /* How long the probability overlay may spend on each update. */
+    private static final long PROBABILITY_BUDGET_MILLIS = 100;
+    /* Where S saves the game and L loads it from (in the working directory). */
+    private static final String SAVE_FILE_NAME = "saved-game" + SavedGame.FILE_EXTENSION;
 
-public class MinesweeperUIBuilder {
     private Minesweeper minesweeper;
     private MouseEventHandler mouseEventHandler;
+    private DeductionSolver solver;     // Made the first time it's needed (see getSolver()).
     private GameSettings gameSettings;
-    private GridPane buttonGrid;
+    private final BoardView boardView;
+    private final BoardPregenerator boardPregenerator;
     private Stage primaryStage;
     private Stage settingsStage;
+    private Path recordingDirectory;
+    private GameRecorder gameRecorder;
 
     private Label mineCounter = new Label();
     private Label timerLabel = new Label();
-    private Timer timer;
-    private int seconds;
-    private boolean timerStarted;
+    private final AnimationTimer clockDisplay = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            updateTimerDisplay();
+        }
+    };
+    private int displayedSeconds;
     private boolean gameOver;
+    private boolean weAreDebugging = false;
+    private boolean showProbabilities = false;
+    private boolean waitingForFirstClick;
+    private Minesweeper generatingBoardFor;   // The placeholder game whose no-guess board is being built.
+    private int probabilityRequest;
+    private GameOverReveal gameOverReveal;
+    private int lastMoveRow = -1;
+    private int lastMoveCol = -1;
+    private final PerfMonitor perfMonitor = new PerfMonitor();
+    private final PerfOverlay perfOverlay = new PerfOverlay(perfMonitor);
 
     /**
      * Constructor for initializing the UI Builder.
      * A new Minesweeper and MouseEventHandler are created when the
      * resetGame() method is called, which happens at program launch and
      * when starting a new game.
-     * @param primaryStage
-     * @param gameSettings
+     * @param primaryStage The main window of the game.
+     * @param gameSettings The settings used to start each new game.
+     * @param rendererType How the game board should be drawn.
      */
-    public MinesweeperUIBuilder(Stage primaryStage, GameSettings gameSettings) {
+    public MinesweeperUIBuilder(Stage primaryStage, GameSettings gameSettings, RendererType rendererType) {
         this.primaryStage = primaryStage;
         this.gameSettings = gameSettings;
+        this.boardView = rendererType.createBoardView();
+        // The cell images and fonts load in the background, so draw the board again once they're in.
+        UIProperties.whenResourcesLoaded(boardView::redraw);
+        this.boardPregenerator = new BoardPregenerator(
+                gameSettings.getHeight(), gameSettings.getWidth(), gameSettings.getNumMines());
+        // Minimizing the window pauses the game clock.
+        primaryStage.iconifiedProperty().addListener((observable, wasIconified, isIconified) -> {
+            if (isIconified) {
+                minesweeper.getClock().pause();
+            } else {
+                minesweeper.getClock().resume();
+            }
+        });
+    }
+
+    /**
+     * Clean up before the app exits: finish the recording and stop building boards in the background.
+     */
+    public void shutdown() {
+        stopRecording();
+        boardPregenerator.shutdown();
+    }
+
+    /**
+     * Record every game from now on into the given directory, one file per game.
+     * @param recordingDirectory Where to put the recordings, or null to stop recording.
+     */
+    public void setRecordingDirectory(Path recordingDirectory) {
+        this.recordingDirectory = recordingDirectory;
     }
 
     public void updateMineCounter(int numMines) {
@@ -60,6 +127,84 @@ public class MinesweeperUIBuilder {
         gameOver = true;
     }
 
+    @Override
+    public void onMove(MoveType moveType, int row, int col) {
+        lastMoveRow = row;
+        lastMoveCol = col;
+        // Only the move the player made counts, not the auto moves that come after it.
+        if (perfMonitor.getPendingAction() == null) {
+            perfMonitor.setAction(moveType == MoveType.REVEAL ? PerfAction.REVEAL
+                    : moveType == MoveType.FLAG ? PerfAction.FLAG : PerfAction.CHORD);
+        }
+    }
+
+    /**
+     * A mouse button was released on the board: start timing how long until its result is on screen.
+     */
+    public void inputReceived() {
+        perfMonitor.inputReceived();
+        // Make sure there is a next frame to stop the clock, even if the click didn't change anything.
+        Platform.requestNextPulse();
+    }
+
+    /**
+     * Redraw every Cell that changed during a move. The whole batch is applied in one go,
+     * so a big flood fill shows up on screen in a single frame.
+     * The exception is the reveal at the end of the game, which can be most of the board. That one
+     * is drawn a bit at a time over the next few frames, so the window doesn't freeze.
+     * @param changes The Cells that changed during the move.
+     */
+    @Override
+    public void onCellsChanged(ChangeSet changes) {
+        if (perfMonitor.getPendingAction() == PerfAction.REVEAL && changes.size() > 1) {
+            perfMonitor.setAction(PerfAction.FLOOD_FILL);
+        }
+        boardView.clearHint();
+        if (gameOver) {
+            boolean ripple = UIProperties.GAME_OVER_REVEAL_RIPPLE && lastMoveRow >= 0;
+            gameOverReveal = new GameOverReveal(boardView, changes, minesweeper.getWidth(), minesweeper.getHeight(),
+                    ripple ? lastMoveRow : -1, ripple ? lastMoveCol : -1);
+            gameOverReveal.start();
+        } else {
+            boardView.updateCells(changes);
+        }
+        if (showProbabilities) {
+            updateProbabilities();
+        }
+    }
+
+    @Override
+    public void onMinesRemainingChanged(int minesRemaining) {
+        updateMineCounter(minesRemaining);
+    }
+
+    @Override
+    public void onGameOver(boolean youWon) {
+        if (youWon) {
+            // Show the good ending
+            SoundManager.playWinnerSound();
+        } else {
+            // Show the bad ending
+            SoundManager.playLoserSound();
+        }
+        setGameOver();
+        updateTimerDisplay();
+        System.out.printf("Game over after %.3f seconds.%n", minesweeper.getClock().getElapsedMillis() / 1000.0);
+    }
+
+    /**
+     * A move was taken back. If it was the move that ended the game, the game is back on.
+     */
+    @Override
+    public void onUndo() {
+        if (gameOverReveal != null) {
+            gameOverReveal.cancel();
+            gameOverReveal = null;
+        }
+        gameOver = false;
+        boardView.clearHint();
+    }
+
     /**
      * Build the Scene containing the main game layout.
      * @return The Scene to be displayed.
@@ -69,18 +214,22 @@ public class MinesweeperUIBuilder {
         topButtonGroup.setPadding(UIProperties.INSETS);
         topButtonGroup.setAlignment(Pos.CENTER);
 
-        // Build the button grid
-        buttonGrid = new GridPane();
-        buttonGrid.setPadding(UIProperties.INSETS);
+        // Build the game board
         resetGame();
+        perfMonitor.cancel();   // The first game is part of startup, not a New Game click.
 
         // Create mine counter and timer
         mineCounter = new Label(gameSettings.getNumMinesAsString());
         timerLabel = new Label("000");
-        mineCounter.setFont(UIProperties.COUNTER_FONT);
-        timerLabel.setFont(UIProperties.COUNTER_FONT);
+        mineCounter.setFont(UIProperties.getCounterFont());
+        timerLabel.setFont(UIProperties.getCounterFont());
+        UIProperties.whenResourcesLoaded(() -> {
+            mineCounter.setFont(UIProperties.getCounterFont());
+            timerLabel.setFont(UIProperties.getCounterFont());
+        });
         mineCounter.setTextFill(UIProperties.COUNTER_COLOR);
         timerLabel.setTextFill(UIProperties.COUNTER_COLOR);
+        clockDisplay.start();
         HBox.setHgrow(mineCounter, Priority.ALWAYS);
         HBox.setHgrow(timerLabel, Priority.ALWAYS);
 
@@ -104,193 +253,400 @@ public class MinesweeperUIBuilder {
 
         /* Create VBox and HBox wrappers to center the grid.
            Put the VBox in the HBox, and put the HBox in the mainLayout. */
-        VBox vBoxWrapper = new VBox(buttonGrid);
+        VBox vBoxWrapper = new VBox(boardView.getNode());
         HBox hBoxWrapper = new HBox(vBoxWrapper);
         vBoxWrapper.setAlignment(Pos.CENTER);
         hBoxWrapper.setAlignment(Pos.CENTER);
+        // Let the board grow with the window (up to its own max size), so a scrollable board can use the space.
+        VBox.setVgrow(boardView.getNode(), Priority.ALWAYS);
+        HBox.setHgrow(vBoxWrapper, Priority.ALWAYS);
 
         // Build the window to hold the grid and buttons
         BorderPane mainLayout = new BorderPane();
         mainLayout.setStyle(UIProperties.BACKGROUND_COLOR);
         mainLayout.setTop(topButtonGroup);
-        mainLayout.setCenter(hBoxWrapper);
+        mainLayout.setCenter(new StackPane(hBoxWrapper, perfOverlay.getNode()));
 
-        return new Scene(mainLayout);
+        Scene scene = new Scene(mainLayout);
+        // Layout is done and the frame is about to be drawn, so whatever the player did is on screen.
+        scene.addPostLayoutPulseListener(perfMonitor::frameRendered);
+        scene.setOnKeyPressed(e -> {
+            if (e.isShortcutDown() && e.getCode() == KeyCode.Z) {
+                if (e.isShiftDown()) {
+                    redo();
+                } else {
+                    undo();
+                }
+            } else if (e.isShortcutDown() && e.getCode() == KeyCode.Y) {
+                redo();
+            } else if (e.isShortcutDown() && e.getCode() == KeyCode.S) {
+                saveGame();
+            } else if (e.isShortcutDown() && e.getCode() == KeyCode.L) {
+                loadGame();
+            } else if (e.getCode() == KeyCode.H) {
+                showHint();
+            } else if (e.getCode() == KeyCode.P) {
+                toggleProbabilities();
+            } else if (e.getCode() == KeyCode.F3) {
+                perfOverlay.toggle();
+            } else if (e.getCode() == KeyCode.F4) {
+                dumpLatencies();
+            }
+        });
+        return scene;
+    }
+
+    /**
+     * Highlight a cell that is certainly safe to reveal, if the solver can find one.
+     */
+    public void showHint() {
+        if (gameOver) {
+            return;
+        }
+        DeductionSolver solver = getSolver();
+        if (solver == null) {
+            return;
+        }
+        int cell = solver.findSafeCell();
+        if (cell < 0) {
+            System.out.println("No hint available: there's no move that is certainly safe. Time to guess!");
+            return;
+        }
+        boardView.showHint(cell / minesweeper.getWidth(), cell % minesweeper.getWidth());
+    }
+
+    /**
+     * Take back the last move, even the one that blew you up (handy for practicing).
+     */
+    public void undo() {
+        if (waitingForFirstClick || !minesweeper.undo()) {
+            System.out.println("Nothing to undo.");
+        }
+    }
+
+    /**
+     * Make the last move you took back again.
+     */
+    public void redo() {
+        if (waitingForFirstClick || !minesweeper.redo()) {
+            System.out.println("Nothing to redo.");
+        }
+    }
+
+    /**
+     * Turn the mine probability overlay on or off.
+     */
+    public void toggleProbabilities() {
+        showProbabilities = !showProbabilities;
+        if (showProbabilities) {
+            updateProbabilities();
+        } else {
+            boardView.showProbabilities(null);
+        }
+    }
+
+    /**
+     * Work out the mine probabilities in the background, and show them when they're ready.
+     * If the board has moved on by then (another move, new game, or overlay turned off), they're thrown away.
+     */
+    private void updateProbabilities() {
+        int request = ++probabilityRequest;
+        if (gameOver) {
+            boardView.showProbabilities(null);
+            return;
+        }
+        ProbabilityEngine.calculateAsync(minesweeper, PROBABILITY_BUDGET_MILLIS).thenAccept(probabilities ->
+                Platform.runLater(() -> {
+                    if (showProbabilities && request == probabilityRequest && !gameOver) {
+                        boardView.showProbabilities(probabilities);
+                    }
+                }));
+    }
+
+    /**
+     * Called after every move the player makes with the mouse. If auto-flag/auto-chord is on,
+     * the solver makes every move it's sure about, so the player only has to handle the hard parts.
+     */
+    public void afterPlayerMove() {
+        if (gameSettings.isAutoFlagAndChord() && !gameOver) {
+            DeductionSolver solver = getSolver();
+            if (solver != null) {
+                solver.applyAutoMoves();
+            }
+        }
+    }
+
+    /**
+     * The solver costs about 2 bytes per cell, and has to look at the whole board once to catch up,
+     * so it isn't made until the player asks for a hint or an auto move. On boards bigger than
+     * DeductionSolver.MAX_CELLS it isn't made at all.
+     * @return The solver for the current game, or null if the board is too big for it.
+     */
+    private DeductionSolver getSolver() {
+        if (solver == null) {
+            if ((long) minesweeper.getHeight() * minesweeper.getWidth() > DeductionSolver.MAX_CELLS) {
+                System.out.printf("Hints and auto moves are turned off on boards with more than %,d cells.%n",
+                        DeductionSolver.MAX_CELLS);
+                return null;
+            }
+            solver = new DeductionSolver(minesweeper);
+        }
+        return solver;
     }
 
     /**
      * Start a new game and rebuild the grid using current game settings.
      */
     public void resetGame() {
-        resetTimer();
+        perfMonitor.actionStarted(PerfAction.RESET);
+        GridRebuildEvent event = new GridRebuildEvent();
+        event.begin();
         gameOver = false;   // If you reset the game, then it's not over anymore.
+        stopRecording();
         int height = gameSettings.getHeight();
         int width = gameSettings.getWidth();
         int numMines = gameSettings.getNumMines();
-        minesweeper = new Minesweeper(height, width, numMines, this);
+        // A no-guess board depends on where you click first, so it can't be built until then.
+        // Otherwise, there's usually a board already waiting (if the settings haven't just changed).
+        waitingForFirstClick = gameSettings.isNoGuess();
+        Minesweeper newGame = waitingForFirstClick ? new Minesweeper(height, width, numMines)
+                : boardPregenerator.take(height, width, numMines);
+        startGame(newGame);
+        if (event.shouldCommit()) {
+            event.height = height;
+            event.width = width;
+            event.cells = height * width;
+            event.bombs = numMines;
+            event.commit();
+        }
+
+        sizeWindowToBoard();
+        if (waitingForFirstClick) {
+            System.out.println("A new no-guess game has been started. The board is built on the first click.");
+        } else {
+            System.out.println("A new game has been started. " + describeSeed());
+        }
+    }
+
+    /**
+     * Hook up a game to the UI, the solver and the recorder, and show it on the board.
+     * @param newGame The game to play.
+     */
+    private void startGame(Minesweeper newGame) {
+        startGame(newGame, !waitingForFirstClick);
+    }
+
+    /**
+     * Hook up a game to the UI and the solver, and show it on the board.
+     * @param newGame The game to play.
+     * @param record Whether to record the game (if recording is turned on).
+     */
+    private void startGame(Minesweeper newGame, boolean record) {
+        if (gameOverReveal != null) {
+            gameOverReveal.cancel();
+            gameOverReveal = null;
+        }
+        lastMoveRow = -1;
+        lastMoveCol = -1;
+        minesweeper = newGame;
+        minesweeper.addListener(this);
         mouseEventHandler = new MouseEventHandler(minesweeper, this);
         mineCounter.setText(gameSettings.getNumMinesAsString());
+        displayedSeconds = 0;
         timerLabel.setText("000");
-        buttonGrid.getChildren().clear();
-
-        // Build the grid of buttons
-        for (int row = 0; row < height; row++) {
-            for (int col = 0; col < width; col++) {
-                Button cellButton = createCellButton();
-                buttonGrid.add(cellButton, col, row);
-                minesweeper.registerCellButton(cellButton, new Cell(row, col, cellButton));
-            }
+        if (solver != null) {
+            solver.detach();
+            solver = null;
+        }
+        if (record) {
+            startRecording();
         }
-        minesweeper.initializeBoard();
+        boardView.newGame(minesweeper, mouseEventHandler);
+        showAllBombsForDebugging(weAreDebugging);
+        if (showProbabilities) {
+            updateProbabilities();
+        }
+    }
 
-        primaryStage.setMinWidth(gameSettings.calculateMinGameDimensions()[0]);
-        primaryStage.setMinHeight(gameSettings.calculateMinGameDimensions()[1] + 12);
-        primaryStage.setWidth(gameSettings.calculateMinGameDimensions()[0]);
-        primaryStage.setHeight(gameSettings.calculateMinGameDimensions()[1] + 12);
-        System.out.println("A new game has been started.");
+    /**
+     * Whether the current game is a no-guess game that is still waiting for the first click.
+     * @return True if the first left click should build the board instead of revealing a cell.
+     */
+    public boolean isWaitingForFirstClick() {
+        return waitingForFirstClick;
     }
 
     /**
-     * Helper method to create individual cell buttons and tell them what to do when you click on them.
-     * @return The newly created Button.
+     * Build a no-guess board around the first click, in the background, then swap it in and make
+     * the click. Clicks in the meantime are ignored.
+     * @param row The row of the first click.
+     * @param col The column of the first click.
      */
-    private Button createCellButton() {
-        Button cellButton = new Button();
-        cellButton.setMinSize(UIProperties.CELL_SIZE, UIProperties.CELL_SIZE);
-        cellButton.setMaxSize(UIProperties.CELL_SIZE, UIProperties.CELL_SIZE);
-        cellButton.setPrefSize(UIProperties.CELL_SIZE, UIProperties.CELL_SIZE);
-        cellButton.setGraphic(buildStackPaneFromLeftClickOrDefault(cellButton, null));
+    public void startNoGuessGame(int row, int col) {
+        if (generatingBoardFor == minesweeper) {
+            return;
+        }
+        Minesweeper placeholder = minesweeper;
+        generatingBoardFor = placeholder;
+        NoGuessBoardGenerator generator = new NoGuessBoardGenerator(placeholder.getHeight(), placeholder.getWidth(),
+                placeholder.getTotalBombs(), gameSettings.getNoGuessBudgetMillis());
+        CompletableFuture.supplyAsync(() -> generator.generate(row, col, placeholder.getSeed()))
+                .whenComplete((generated, error) -> Platform.runLater(() -> {
+                    if (minesweeper != placeholder) {
+                        return;     // New Game was pressed while the board was being built.
+                    }
+                    Minesweeper newGame = generated;
+                    if (error != null) {
+                        System.out.println("Couldn't build a no-guess board: " + error.getMessage());
+                        newGame = new Minesweeper(placeholder.getHeight(), placeholder.getWidth(),
+                                placeholder.getTotalBombs(), placeholder.getSeed());
+                        newGame.initializeBoard();
+                    }
+                    waitingForFirstClick = false;
+                    startGame(newGame);
+                    System.out.println("The no-guess board is ready. " + describeSeed());
+                    minesweeper.reveal(row, col);
+                    afterPlayerMove();
+                }));
+    }
 
-        cellButton.addEventHandler(MouseEvent.MOUSE_PRESSED,
-                e -> mouseEventHandler.handleMousePressed(e, cellButton));
-        cellButton.addEventHandler(MouseEvent.MOUSE_RELEASED,
-                e -> mouseEventHandler.handleMouseReleased(e, cellButton));
-        return cellButton;
+    /**
+     * Save the game in progress to a file in the working directory, so it can be loaded later.
+     */
+    private void saveGame() {
+        if (gameOver || waitingForFirstClick) {
+            System.out.println("There's no game in progress to save.");
+            return;
+        }
+        Path file = Path.of(SAVE_FILE_NAME);
+        try {
+            SavedGame.write(minesweeper, file);
+            System.out.println("Saved the game to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Couldn't save the game: " + e.getMessage());
+        }
     }
 
     /**
-     * Update the appearance of the cell after the user interacts with it.
-     * @param cellButton The button that was clicked.
-     * @param cell The game cell that corresponds to that button.
-     * @param isLeftClick Flag to determine whether the click was a left click or not.
+     * Load the game saved by saveGame() and carry on playing it. The settings change to match
+     * the saved board, so New Game starts one the same size.
      */
-    public void updateCellAppearance(Button cellButton, Cell cell, boolean isLeftClick) {
-        // The timer starts when the player first interacts with the game board.
-        if (!timerStarted) {
-            startTimer();
-            timerStarted = true;
+    private void loadGame() {
+        Path file = Path.of(SAVE_FILE_NAME);
+        Minesweeper loaded;
+        try {
+            loaded = SavedGame.read(file);
+        } catch (IOException e) {
+            System.out.println("Couldn't load the game: " + e.getMessage());
+            return;
         }
-        StackPane stackPane;
-        if (isLeftClick) {
-            stackPane = buildStackPaneFromLeftClickOrDefault(cellButton, cell);
-        } else {    // You right-clicked.
-            stackPane = buildStackPaneFromRightClick(cellButton, cell);
+        gameOver = false;
+        stopRecording();
+        gameSettings.setHeight(loaded.getHeight());
+        gameSettings.setWidth(loaded.getWidth());
+        gameSettings.setNumMines(loaded.getTotalBombs());
+        waitingForFirstClick = false;
+        startGame(loaded, false);     // A recording has to start from an untouched board.
+        boardView.redraw();
+        updateMineCounter(minesweeper.getMinesRemaining());
+        sizeWindowToBoard();
+        System.out.println("Loaded the game from " + file.toAbsolutePath() + ". " + describeSeed());
+    }
+
+    /**
+     * Save the click latency histograms to a CSV file in the working directory.
+     */
+    private void dumpLatencies() {
+        Path file = Path.of("latencies-" + System.currentTimeMillis() + ".csv");
+        try {
+            perfMonitor.writeTo(file);
+            System.out.println("Saved the click latencies to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Couldn't save the click latencies: " + e.getMessage());
         }
-        cellButton.setGraphic(stackPane);
     }
 
     /**
-     * Build the StackPane that results from a left click interaction (or no interaction,
-     * but you just started a new game).
-     * A StackPane consists of some (optional) text, an (optional) image, and the button,
-     * stacked on top of each other.
-     * @param cellButton The cell button that was clicked (or initialized). NOTE: This is
-     *                   not needed, but I'm leaving it in case it's needed in the future.
-     * @param cell The corresponding game cell for that button.
-     * @return The newly built StackPane for your viewing pleasure.
+     * @return The seed to print for the current game, or a note that no seed can recreate it.
      */
-    private StackPane buildStackPaneFromLeftClickOrDefault(Button cellButton, Cell cell) {
-        StackPane stackPane = new StackPane();
-        stackPane.setStyle(UIProperties.CELL_BORDER_STYLE);
-        ImageView imageView;
-        Text cellText = new Text("");
-        cellText.setFont(UIProperties.CELL_FONT);
-        cellText.setStroke(UIProperties.CELL_TEXT_STROKE_COLOR);
-        cellText.setStrokeWidth(UIProperties.CELL_TEXT_STROKE_WIDTH);
-        if (cell == null) { // Initial board setup
-            imageView = new CellImageView(UIProperties.NO_CELL_IMG);
-            stackPane.getChildren().addAll(imageView);
-            return stackPane;
-        }
-        if (cell.isBomb() && cell.isRevealed()) { // Endgame only - show which cell you screwed up on.
-            imageView = new CellImageView(UIProperties.CLICKED_BOMB_IMG);
-        } else if (cell.isBomb() && !cell.isRevealed()) { // Endgame only - show where the rest of the bombs were.
-            imageView = new CellImageView(UIProperties.REVEALED_BOMB_IMG);
-        } else {    // Cell is not a Bomb.
-            imageView = new CellImageView(UIProperties.NO_CELL_IMG);
-            stackPane.setStyle(UIProperties.CLICKED_CELL_BG_COLOR + UIProperties.CELL_BORDER_STYLE);
-            if (cell.getNeighborMines() != 0) {
-                cellText.setText(String.valueOf(cell.getNeighborMines()));
-                cellText.setFill(UIProperties.COLOR_MAP.get(cell.getNeighborMines()));
-            }
+    private String describeSeed() {
+        if (minesweeper.isReproducibleFromSeed()) {
+            return "Seed: " + minesweeper.getSeed();
         }
-        stackPane.getChildren().addAll(imageView, cellText);
-        return stackPane;
+        return "(No seed: these bombs weren't placed from one, so only a recording or a save can bring this board back.)";
     }
 
     /**
-     * Build the StackPane that results from a right-click interaction.
-     * The left-click method was getting large and complicated, so I pulled the right-click
-     * logic into its own method.
-     * @param cellButton The cell button that was clicked (or initialized). NOTE: This is
-     *                   not needed, but I'm leaving it in case it's needed in the future.
-     * @param cell The corresponding game cell for that button.
-     * @return The newly built StackPane for your viewing pleasure.
+     * Start recording the current game, if recording is turned on.
+     * The file name includes the seed, so it's easy to find the recording of a particular board.
+     * Boards the seed can't recreate (no-guess boards) get "noguess" instead.
      */
-    private StackPane buildStackPaneFromRightClick(Button cellButton, Cell cell) {
-        StackPane stackPane = new StackPane();
-        stackPane.setStyle(UIProperties.CELL_BORDER_STYLE);
-        ImageView imageView;
-        if (cell.isFlagged()) {
-            imageView = new CellImageView(UIProperties.FLAGGED_CELL_IMG);
-        } else {
-            imageView = new CellImageView(UIProperties.NO_CELL_IMG);
+    private void startRecording() {
+        if (recordingDirectory != null) {
+            String fileName = String.format("game-%d-%s%s", System.currentTimeMillis(),
+                    minesweeper.isReproducibleFromSeed() ? String.valueOf(minesweeper.getSeed()) : "noguess",
+                    RecordingFormat.FILE_EXTENSION);
+            gameRecorder = new GameRecorder(minesweeper, recordingDirectory.resolve(fileName));
         }
-        stackPane.getChildren().addAll(imageView);
-        return stackPane;
     }
 
     /**
-     * Make the timer start counting up so the user can see how many seconds have elapsed
-     * since game start.
-     * Timer should freeze at 999, or when the game is over.
-     * This code could potentially be moved into the model.Minesweeper class.
+     * Stop recording the current game (if it was being recorded).
      */
-    private void startTimer() {
-        timer = new Timer();
-        TimerTask task = new TimerTask() {
-            @Override
-            public void run() {
-                if (seconds == 999 || gameOver) {
-                    // Stop incrementing the timer
-                    timer.cancel();
-                    timer.purge();
-                } else {
-                    seconds++;
-                }
-                Platform.runLater(() -> updateTimerDisplay(seconds));
-            }
-        };
-        timer.scheduleAtFixedRate(task, 1000, 1000);
+    public void stopRecording() {
+        if (gameRecorder != null) {
+            gameRecorder.close();
+            gameRecorder = null;
+        }
     }
 
     /**
-     * Stop the timer, and reset it to 0.
+     * Resize the window so the whole board fits, unless the board is bigger than the screen.
+     * In that case the window fills the screen and the board scrolls inside it.
      */
-    public void resetTimer() {
-        if (timer != null) {
-            timer.cancel();
-            timer.purge();
+    private void sizeWindowToBoard() {
+        double[] minDimensions = gameSettings.calculateMinGameDimensions();
+        double boardWidth = minDimensions[0];
+        double boardHeight = minDimensions[1] + 12;
+        Rectangle2D screen = Screen.getPrimary().getVisualBounds();
+        boolean fitsOnScreen = boardWidth <= screen.getWidth() && boardHeight <= screen.getHeight();
+        double windowWidth = Math.min(boardWidth, screen.getWidth());
+        double windowHeight = Math.min(boardHeight, screen.getHeight());
+        double[] smallestWindow = gameSettings.calculateMinWindowDimensions();
+        primaryStage.setMinWidth(fitsOnScreen ? windowWidth : smallestWindow[0]);
+        primaryStage.setMinHeight(fitsOnScreen ? windowHeight : smallestWindow[1]);
+        primaryStage.setWidth(windowWidth);
+        primaryStage.setHeight(windowHeight);
+    }
+
+    /**
+     * Basically just a cheat code to view the bombs on screen while you're
+     * playing...er, I mean "debugging."
+     * @param weAreDebugging Class level parameter. Set it to true if you want to see
+     *                       the bombs as you're playing.
+     */
+    private void showAllBombsForDebugging(boolean weAreDebugging) {
+        if (weAreDebugging) {
+            for (int row = 0; row < minesweeper.getHeight(); row++) {
+                for (int col = 0; col < minesweeper.getWidth(); col++) {
+                    if (minesweeper.isBomb(row, col)) {
+                        boardView.showBomb(row, col);
+                    }
+                }
+            }
         }
-        timerStarted = false;
-        seconds = 0;
     }
 
     /**
-     * Convert the elapsed time into text so the user can view it on screen.
-     * @param seconds The number of seconds elapsed so far in this game.
+     * Show the current game's time, in whole seconds, on the timer. This runs every frame,
+     * but the label only changes when the number does. The timer freezes at 999, and stops
+     * when the game is over (because the game's clock does).
      */
-    private void updateTimerDisplay(int seconds) {
-        timerLabel.setText(String.format("%03d", seconds));
+    private void updateTimerDisplay() {
+        int seconds = (int) Math.min(999, minesweeper.getClock().getElapsedMillis() / 1000);
+        if (seconds != displayedSeconds) {
+            displayedSeconds = seconds;
+            timerLabel.setText(String.format("%03d", seconds));
+        }
     }
 }
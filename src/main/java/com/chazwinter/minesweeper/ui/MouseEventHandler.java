@@ -1,7 +1,6 @@
 package com.chazwinter.minesweeper.ui;
 
 import com.chazwinter.minesweeper.model.Minesweeper;
-import javafx.scene.control.Button;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 
@@ -24,10 +23,11 @@ public class MouseEventHandler {
     /**
      * Initially handle a mouse event by determining if it was a left click,
      * right click, or middle click.
-     * @param event
-     * @param cellButton
+     * @param event The mouse event received.
+     * @param row The row of the cell that was pressed with the mouse.
+     * @param col The column of the cell that was pressed with the mouse.
      */
-    public void handleMousePressed(MouseEvent event, Button cellButton) {
+    public void handleMousePressed(MouseEvent event, int row, int col) {
         if (event.isPrimaryButtonDown()) {
             leftButtonDown = true;
         }
@@ -35,9 +35,9 @@ public class MouseEventHandler {
             rightButtonDown = true;
         }
         if (event.isMiddleButtonDown()) {
-            handleBothMouseButtonsAction(cellButton);
+            handleBothMouseButtonsAction(row, col);
         } else {
-            checkBothButtonsDown(cellButton);
+            checkBothButtonsDown(row, col);
         }
     }
 
@@ -46,16 +46,20 @@ public class MouseEventHandler {
      * Releasing the middle mouse button performs the same action as left
      * and right-clicking at the same time.
      * @param event The mouse event received.
-     * @param cellButton The button on the game grid that was pressed with the mouse.
+     * @param isHover Whether the mouse is still over the cell that was pressed. If you
+     *                moved off of it before letting go, the click doesn't count.
+     * @param row The row of the cell that was pressed with the mouse.
+     * @param col The column of the cell that was pressed with the mouse.
      */
-    public void handleMouseReleased (MouseEvent event, Button cellButton) {
-        if (cellButton.isHover()) {
+    public void handleMouseReleased (MouseEvent event, boolean isHover, int row, int col) {
+        uiBuilder.inputReceived();  // Click latency is measured from the release, like a real click.
+        if (isHover) {
             if (event.getButton() == MouseButton.PRIMARY && leftButtonDown && !rightButtonDown) {
-                handleLeftMouseButtonAction(cellButton);
+                handleLeftMouseButtonAction(row, col);
             } else if (event.getButton() == MouseButton.SECONDARY && rightButtonDown && !leftButtonDown) {
-                handleRightMouseButtonAction(cellButton);
+                handleRightMouseButtonAction(row, col);
             } else if (event.getButton() == MouseButton.MIDDLE) {
-                handleBothMouseButtonsAction(cellButton);
+                handleBothMouseButtonsAction(row, col);
             }
         }
 
@@ -70,36 +74,47 @@ public class MouseEventHandler {
     /**
      * Helper method to determine if the user has pressed the left and
      * right mouse buttons at the same time, so we can take the correct action.
-     * @param cellButton The button on the game grid that was pressed with the mouse.
+     * @param row The row of the cell that was pressed with the mouse.
+     * @param col The column of the cell that was pressed with the mouse.
      */
-    private void checkBothButtonsDown(Button cellButton) {
+    private void checkBothButtonsDown(int row, int col) {
         if (leftButtonDown && rightButtonDown) {
-            handleBothMouseButtonsAction(cellButton);
+            handleBothMouseButtonsAction(row, col);
         }
     }
 
     /**
      * Helper method to take appropriate action when a user left clicks the game grid.
-     * @param cellButton The button on the game grid that was pressed with the mouse.
+     * @param row The row of the cell that was pressed with the mouse.
+     * @param col The column of the cell that was pressed with the mouse.
      */
-    private void handleLeftMouseButtonAction(Button cellButton) {
-        minesweeper.processCellLeftClick(cellButton);
+    private void handleLeftMouseButtonAction(int row, int col) {
+        if (uiBuilder.isWaitingForFirstClick()) {
+            uiBuilder.startNoGuessGame(row, col);
+            return;
+        }
+        minesweeper.reveal(row, col);
+        uiBuilder.afterPlayerMove();
     }
 
     /**
      * Helper method to take appropriate action when a user right clicks the game grid.
-     * @param cellButton The button on the game grid that was pressed with the mouse.
+     * @param row The row of the cell that was pressed with the mouse.
+     * @param col The column of the cell that was pressed with the mouse.
      */
-    private void handleRightMouseButtonAction(Button cellButton) {
-        minesweeper.processCellRightClick(cellButton);
+    private void handleRightMouseButtonAction(int row, int col) {
+        minesweeper.toggleFlag(row, col);
+        uiBuilder.afterPlayerMove();
     }
 
     /**
      * Helper method to take appropriate action when a user middle clicks,
      * or left+right clicks, the game grid.
-     * @param cellButton The button on the game grid that was pressed with the mouse.
+     * @param row The row of the cell that was pressed with the mouse.
+     * @param col The column of the cell that was pressed with the mouse.
      */
-    private void handleBothMouseButtonsAction(Button cellButton) {
-        minesweeper.processCellMiddleClick(cellButton);
+    private void handleBothMouseButtonsAction(int row, int col) {
+        minesweeper.chord(row, col);
+        uiBuilder.afterPlayerMove();
     }
 }
@@ -0,0 +1,84 @@
+package com.chazwinter.minesweeper.ui;
+
+import com.chazwinter.minesweeper.perf.LatencyHistogram;
+import com.chazwinter.minesweeper.perf.PerfAction;
+import com.chazwinter.minesweeper.perf.PerfMonitor;
+import com.chazwinter.minesweeper.util.UIProperties;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+
+/**
+ * A little box in the corner of the board that shows the click latencies (p50/p99 for each kind
+ * of action), frames per second and heap use. It's updated twice a second while it's showing.
+ */
+public class PerfOverlay {
+    private static final long UPDATE_INTERVAL_NANOS = 500_000_000;
+
+    private final PerfMonitor perfMonitor;
+    private final Label label = new Label();
+    private final AnimationTimer updater = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            if (now - lastUpdateNanos >= UPDATE_INTERVAL_NANOS) {
+                update(now);
+            }
+        }
+    };
+    private long lastUpdateNanos;
+    private long lastFrameCount;
+
+    /**
+     * Constructor for the overlay. It starts out hidden.
+     * @param perfMonitor Where the numbers come from.
+     */
+    public PerfOverlay(PerfMonitor perfMonitor) {
+        this.perfMonitor = perfMonitor;
+        label.setFont(UIProperties.PERF_OVERLAY_FONT);
+        label.setTextFill(UIProperties.PERF_OVERLAY_TEXT_COLOR);
+        label.setStyle(UIProperties.PERF_OVERLAY_STYLE);
+        label.setMouseTransparent(true);
+        label.setVisible(false);
+        StackPane.setAlignment(label, Pos.TOP_LEFT);
+    }
+
+    public Label getNode() {
+        return label;
+    }
+
+    /**
+     * Show the overlay if it's hidden, or hide it if it's showing.
+     */
+    public void toggle() {
+        boolean show = !label.isVisible();
+        label.setVisible(show);
+        if (show) {
+            lastUpdateNanos = System.nanoTime();
+            lastFrameCount = perfMonitor.getFrameCount();
+            label.setText("Measuring...");
+            updater.start();
+        } else {
+            updater.stop();
+        }
+    }
+
+    private void update(long now) {
+        long frames = perfMonitor.getFrameCount() - lastFrameCount;
+        double fps = frames * 1e9 / (now - lastUpdateNanos);
+        lastUpdateNanos = now;
+        lastFrameCount = perfMonitor.getFrameCount();
+
+        Runtime runtime = Runtime.getRuntime();
+        long usedMegabytes = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        StringBuilder text = new StringBuilder(String.format("FPS %.0f   Heap %d/%d MB%n",
+                fps, usedMegabytes, runtime.maxMemory() / (1024 * 1024)));
+        text.append("action         n    p50 ms   p99 ms");
+        for (PerfAction action : PerfAction.values()) {
+            LatencyHistogram histogram = perfMonitor.getHistogram(action);
+            text.append(String.format("%n%-10s %5d %9.2f %8.2f", action.name().toLowerCase(), histogram.getCount(),
+                    histogram.getPercentile(50) / 1e6, histogram.getPercentile(99) / 1e6));
+        }
+        label.setText(text.toString());
+    }
+}
@@ -0,0 +1,54 @@
+package com.chazwinter.minesweeper.ui;
+
+/**
+ * The different ways the game board can be drawn. Chosen at startup with
+ * --renderer=buttons (the default) or --renderer=canvas.
+ */
+public enum RendererType {
+    /** One Button per cell. Looks the nicest, but gets slow on big boards. */
+    BUTTONS(30),
+    /** The whole board drawn onto a single Canvas, scrolled and zoomed like a map. */
+    CANVAS(5000);
+
+    private final int maxGridSize;
+
+    RendererType(int maxGridSize) {
+        this.maxGridSize = maxGridSize;
+    }
+
+    /**
+     * The biggest height and width this renderer can handle without falling over.
+     * @return The maximum grid size to allow in the settings menu.
+     */
+    public int getMaxGridSize() {
+        return maxGridSize;
+    }
+
+    /**
+     * Figure out which renderer the user asked for on the command line.
+     * @param name The value of the --renderer launch parameter (may be null).
+     * @return The matching renderer, or BUTTONS if nothing (or nonsense) was given.
+     */
+    public static RendererType fromString(String name) {
+        if (name != null) {
+            for (RendererType type : values()) {
+                if (type.name().equalsIgnoreCase(name.trim())) {
+                    return type;
+                }
+            }
+            System.out.println("Unknown renderer \"" + name + "\", using " + BUTTONS.name().toLowerCase());
+        }
+        return BUTTONS;
+    }
+
+    /**
+     * Create a new board view for this renderer.
+     * @return The BoardView that draws the board this way.
+     */
+    public BoardView createBoardView() {
+        if (this == CANVAS) {
+            return new CanvasBoardView();
+        }
+        return new ButtonBoardView();
+    }
+}
@@ -5,6 +5,7 @@ import com.chazwinter.minesweeper.settings.GameSettings;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
@@ -46,6 +47,16 @@ public class SettingsUIBuilder {
        heightLabel.setTextFill(UIProperties.SETTINGS_TEXT_COLOR);
        minesLimitLabel = new Label(gameSettings.getValidator().getMinesLimitText());
        minesLimitLabel.setTextFill(UIProperties.SETTINGS_TEXT_COLOR);
+       // Takes effect right away, no need to apply settings or start a new game.
+       CheckBox autoFlagAndChordBox = new CheckBox("Auto-flag and chord the sure things");
+       autoFlagAndChordBox.setTextFill(UIProperties.SETTINGS_TEXT_COLOR);
+       autoFlagAndChordBox.setSelected(gameSettings.isAutoFlagAndChord());
+       autoFlagAndChordBox.setOnAction(e -> gameSettings.setAutoFlagAndChord(autoFlagAndChordBox.isSelected()));
+       // Takes effect on the next new game.
+       CheckBox noGuessBox = new CheckBox("No guessing (every board can be solved by logic)");
+       noGuessBox.setTextFill(UIProperties.SETTINGS_TEXT_COLOR);
+       noGuessBox.setSelected(gameSettings.isNoGuess());
+       noGuessBox.setOnAction(e -> gameSettings.setNoGuess(noGuessBox.isSelected()));
        userMessageLabel = new Label(UIProperties.USER_MESSAGE_DEFAULT);
        userMessageLabel.setMaxWidth(UIProperties.USER_MESSAGE_DEFAULT_WIDTH);
        userMessageLabel.setWrapText(true);
@@ -97,6 +108,7 @@ public class SettingsUIBuilder {
                heightLabel, heightField,
                widthLabel, widthField,
                minesLimitLabel, minesField,
+               autoFlagAndChordBox, noGuessBox,
                bottomButtonGroup, userMessageLabel);
        return settingsPane;
    }
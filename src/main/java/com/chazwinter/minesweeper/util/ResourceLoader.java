@@ -0,0 +1,75 @@
+package com.chazwinter.minesweeper.util;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.text.Font;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads the images and fonts in UIProperties without holding up the JavaFX Application Thread.
+ * Images are decoded in the background by JavaFX itself, and fonts are loaded on the common pool,
+ * so everything loads at the same time instead of one after the other.
+ *
+ * This lives in its own class on purpose: the background work can't touch UIProperties while
+ * UIProperties is still being initialized, or the threads would wait for each other forever.
+ */
+class ResourceLoader {
+
+    /**
+     * Start loading an image in the background. Until it's done, the Image is empty (it draws as nothing).
+     * @param path The resource path of the image.
+     * @return The image, which fills in once it's loaded.
+     */
+    static Image loadImage(String path) {
+        return new Image(ResourceLoader.class.getResource(path).toExternalForm(), true);
+    }
+
+    /**
+     * Start loading a font on a background thread.
+     * @param path The resource path of the font file.
+     * @param size The size of the font.
+     * @return The font, once it's loaded. If it can't be loaded, the default font at that size.
+     */
+    static CompletableFuture<Font> loadFont(String path, double size) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (InputStream stream = ResourceLoader.class.getResourceAsStream(path)) {
+                Font font = Font.loadFont(stream, size);
+                return font != null ? font : Font.font(size);
+            } catch (IOException e) {
+                System.out.println("Couldn't load the font " + path + ": " + e.getMessage());
+                return Font.font(size);
+            }
+        });
+    }
+
+    /**
+     * Find out when a background-loaded image is done (or failed).
+     * @param image The image being loaded.
+     * @return A future that completes when the image is ready.
+     */
+    static CompletableFuture<Void> whenLoaded(Image image) {
+        CompletableFuture<Void> loaded = new CompletableFuture<>();
+        image.progressProperty().addListener((observable, oldProgress, progress) -> {
+            if (progress.doubleValue() >= 1) {
+                loaded.complete(null);
+            }
+        });
+        image.errorProperty().addListener((observable, wasError, isError) -> loaded.complete(null));
+        if (image.getProgress() >= 1 || image.isError()) {
+            loaded.complete(null);
+        }
+        return loaded;
+    }
+
+    /**
+     * Run something on the JavaFX Application Thread once all the given loads are done.
+     * @param loads The loads to wait for.
+     * @param action What to run.
+     */
+    static void runWhenDone(CompletableFuture<Void> loads, Runnable action) {
+        loads.thenRun(() -> Platform.runLater(action));
+    }
+}
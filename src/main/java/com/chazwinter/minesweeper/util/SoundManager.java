@@ -1,44 +1,73 @@
 package com.chazwinter.minesweeper.util;
 
-
+import javafx.application.Platform;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * The SoundManager class loads the game sounds when you launch the app.
+ * The SoundManager class finds the game sounds in the background, once the window is up.
  * When you win, a winner sound is chosen to commemorate the event.
  * When you lose, a loser sound is chosen to commemorate the event.
+ *
+ * Sounds are found by trying loser0.mp3, loser1.mp3, ... until one is missing, so new sounds
+ * just have to be dropped into the sound folder. Only a few MediaPlayers are kept around at once
+ * (the most recently used ones). The next sound for each ending is picked and loaded ahead of
+ * time, so it's ready to play the moment the game ends. Those two, and the sound that played
+ * last, are never thrown out of the pool, and a player is only disposed of once it's done playing.
  */
 public class SoundManager {
-    private static List<MediaPlayer> loserSounds;
-    private static List<MediaPlayer> winnerSounds;
-    private static final int LOSER_SOUNDS_LIST_SIZE = 15;
-    private static final int WINNER_SOUNDS_LIST_SIZE = 13;
     private static final String MULTI_SOUND_PATH = "/com/chazwinter/minesweeper/sound/";
-    private static Random random;
+    /* The most MediaPlayers to keep in memory at once. */
+    private static final int MAX_PLAYERS = 4;
+
+    /* Sound loading happens here, so it never holds up the UI. */
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sound-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /* In least recently used order, so trimPool() throws away the oldest players first. Guarded by itself. */
+    private static final Map<String, MediaPlayer> PLAYERS = new LinkedHashMap<>(16, 0.75f, true);
+    private static volatile List<String> loserSounds = List.of();
+    private static volatile List<String> winnerSounds = List.of();
+    private static volatile String nextLoserSound;
+    private static volatile String nextWinnerSound;
+    private static String lastPlayedSound;  // Guarded by PLAYERS.
 
     /**
-     * Method to dynamically load all sounds when the app first launches.
-     * The List Sizes must be updated manually above, based on how many sounds there are.
+     * Find all the sounds and load one of each kind, on a background thread.
+     * Call this after the window is showing, so it doesn't slow down startup.
      */
     public static void loadSounds() {
-        loserSounds = new ArrayList<>();
-        for (int i = 0; i < LOSER_SOUNDS_LIST_SIZE; i++) {
-            String resourcePath = buildFileName(i, "loser");
-            Media sound = new Media(SoundManager.class.getResource(resourcePath).toExternalForm());
-            loserSounds.add(new MediaPlayer(sound));
-        }
-        winnerSounds = new ArrayList<>();
-        for (int i = 0; i < WINNER_SOUNDS_LIST_SIZE; i++) {
-            String resourcePath = buildFileName(i, "winner");
-            Media sound = new Media(SoundManager.class.getResource(resourcePath).toExternalForm());
-            winnerSounds.add(new MediaPlayer(sound));
+        LOADER.execute(() -> {
+            loserSounds = findSounds("loser");
+            winnerSounds = findSounds("winner");
+            nextLoserSound = preload(loserSounds);
+            nextWinnerSound = preload(winnerSounds);
+        });
+    }
+
+    /**
+     * Find every sound of one kind, by counting up from 0 until a file is missing.
+     * @param loserOrWinner Whether to look for winner or loser event sounds.
+     * @return The resource paths of the sounds that exist.
+     */
+    private static List<String> findSounds(String loserOrWinner) {
+        List<String> sounds = new ArrayList<>();
+        for (int i = 0; SoundManager.class.getResource(buildFileName(i, loserOrWinner)) != null; i++) {
+            sounds.add(buildFileName(i, loserOrWinner));
         }
+        return sounds;
     }
 
     /**
@@ -55,21 +84,106 @@ public class SoundManager {
      * Play a random losing sound when you lose the game.
      */
     public static void playLoserSound() {
-        random = new Random();
-        int index = random.nextInt(loserSounds.size());
-        MediaPlayer player = loserSounds.get(index);
-        player.stop();
-        player.play();
+        play(nextLoserSound);
+        LOADER.execute(() -> nextLoserSound = preload(loserSounds));
     }
 
     /**
      * Play a random winning sound when you win the game.
      */
-    public static void playWinnerSound(){
-        random = new Random();
-        int index = random.nextInt(winnerSounds.size());
-        MediaPlayer player = winnerSounds.get(index);
+    public static void playWinnerSound() {
+        play(nextWinnerSound);
+        LOADER.execute(() -> nextWinnerSound = preload(winnerSounds));
+    }
+
+    /**
+     * Play a sound from the start. If the sounds haven't been found yet, or its player isn't
+     * ready yet, it's skipped rather than making you wait.
+     * @param sound The resource path of the sound.
+     */
+    private static void play(String sound) {
+        if (sound == null) {
+            return;
+        }
+        MediaPlayer player;
+        synchronized (PLAYERS) {
+            player = PLAYERS.get(sound);
+            if (player == null) {
+                return;
+            }
+            lastPlayedSound = sound;
+        }
         player.stop();
         player.play();
     }
+
+    /**
+     * Pick a random sound and make sure it has a player ready.
+     * @param sounds The sounds to pick from.
+     * @return The sound that was picked, or null if there aren't any.
+     */
+    private static String preload(List<String> sounds) {
+        if (sounds.isEmpty()) {
+            return null;
+        }
+        String sound = sounds.get(ThreadLocalRandom.current().nextInt(sounds.size()));
+        load(sound);
+        return sound;
+    }
+
+    /**
+     * Make sure a sound has a player in the pool. The player is made outside the lock (it's slow),
+     * so if someone else put one in first, theirs is kept and this one is thrown away.
+     * @param sound The resource path of the sound.
+     */
+    private static void load(String sound) {
+        synchronized (PLAYERS) {
+            if (PLAYERS.get(sound) != null) {   // get() also marks it as recently used.
+                return;
+            }
+        }
+        URL resource = SoundManager.class.getResource(sound);
+        MediaPlayer player = new MediaPlayer(new Media(resource.toExternalForm()));
+        synchronized (PLAYERS) {
+            if (PLAYERS.putIfAbsent(sound, player) != null) {
+                dispose(player);
+                return;
+            }
+            trimPool(sound);
+        }
+    }
+
+    /**
+     * Throw away the least recently used players until the pool is back down to MAX_PLAYERS.
+     * The next sound for each ending, the sound that played last, and the one that was just
+     * loaded are kept, even if that leaves a few too many for a while. Call with PLAYERS locked.
+     * @param justLoaded The sound that was just loaded.
+     */
+    private static void trimPool(String justLoaded) {
+        Iterator<Map.Entry<String, MediaPlayer>> entries = PLAYERS.entrySet().iterator();
+        while (PLAYERS.size() > MAX_PLAYERS && entries.hasNext()) {
+            Map.Entry<String, MediaPlayer> entry = entries.next();
+            String sound = entry.getKey();
+            if (!sound.equals(justLoaded) && !sound.equals(nextLoserSound) && !sound.equals(nextWinnerSound)
+                    && !sound.equals(lastPlayedSound)) {
+                entries.remove();
+                dispose(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Dispose of a player on the JavaFX Application Thread (where it's played). If it's still
+     * playing, it's disposed of when it finishes instead.
+     * @param player The player to get rid of.
+     */
+    private static void dispose(MediaPlayer player) {
+        Platform.runLater(() -> {
+            if (player.getStatus() == MediaPlayer.Status.PLAYING) {
+                player.setOnEndOfMedia(player::dispose);
+            } else {
+                player.dispose();
+            }
+        });
+    }
 }
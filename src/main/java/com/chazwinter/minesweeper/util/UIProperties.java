@@ -6,12 +6,23 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class contains various UI constants that are used in the rest of the app.
  * To change UI parameters, you should change them in this class.
+ * The images and fonts are loaded in the background, all at once (see ResourceLoader), so
+ * loading this class doesn't hold up the window. The images are blank until they arrive, and
+ * getCellFont() and getCounterFont() give the default font until theirs arrive;
+ * use whenResourcesLoaded() to redraw anything that was drawn before then.
  */
 public class UIProperties {
+    // Fonts start loading first, so they load alongside the images
+    private static final CompletableFuture<Font> CELL_FONT_LOADING = ResourceLoader.loadFont(
+            "/com/chazwinter/minesweeper/font/mine-sweeper.ttf", UIProperties.CELL_FONT_SIZE);
+    private static final CompletableFuture<Font> COUNTER_FONT_LOADING = ResourceLoader.loadFont(
+            "/com/chazwinter/minesweeper/font/neon_pixel-7.ttf", UIProperties.COUNTER_FONT_SIZE);
+
     // General UI properties that apply to multiple places
     public static final String BACKGROUND_COLOR = "-fx-background-color: #111111; ";
     public static final int PADDING = 4;
@@ -21,23 +32,36 @@ public class UIProperties {
     // Game grid cell graphics
     public static final int CELL_SIZE = 20;
     private static final String MULTI_IMAGE_PATH = "/com/chazwinter/minesweeper/image/";
-    public static final Image CLICKED_CELL_IMG = new Image(
-            UIProperties.class.getResourceAsStream(MULTI_IMAGE_PATH + "clicked-cell.gif"));
-    public static final Image CLICKED_BOMB_IMG = new Image(
-            UIProperties.class.getResourceAsStream(MULTI_IMAGE_PATH + "clicked-bomb-cell.gif"));
-    public static final Image REVEALED_BOMB_IMG = new Image(
-            UIProperties.class.getResourceAsStream(MULTI_IMAGE_PATH + "chaz48.png"));
-    public static final Image FLAGGED_CELL_IMG = new Image(
-            UIProperties.class.getResourceAsStream(MULTI_IMAGE_PATH + "flagged-cell.gif"));
-    public static final Image NO_CELL_IMG = new Image(
-            UIProperties.class.getResourceAsStream(MULTI_IMAGE_PATH + "default-cell.gif"));
+    public static final Image CLICKED_CELL_IMG = ResourceLoader.loadImage(MULTI_IMAGE_PATH + "clicked-cell.gif");
+    public static final Image CLICKED_BOMB_IMG = ResourceLoader.loadImage(MULTI_IMAGE_PATH + "clicked-bomb-cell.gif");
+    public static final Image REVEALED_BOMB_IMG = ResourceLoader.loadImage(MULTI_IMAGE_PATH + "chaz48.png");
+    public static final Image FLAGGED_CELL_IMG = ResourceLoader.loadImage(MULTI_IMAGE_PATH + "flagged-cell.gif");
+    public static final Image NO_CELL_IMG = ResourceLoader.loadImage(MULTI_IMAGE_PATH + "default-cell.gif");
+    private static final CompletableFuture<Void> RESOURCES_LOADED = CompletableFuture.allOf(
+            ResourceLoader.whenLoaded(CLICKED_CELL_IMG), ResourceLoader.whenLoaded(CLICKED_BOMB_IMG),
+            ResourceLoader.whenLoaded(REVEALED_BOMB_IMG), ResourceLoader.whenLoaded(FLAGGED_CELL_IMG),
+            ResourceLoader.whenLoaded(NO_CELL_IMG), CELL_FONT_LOADING, COUNTER_FONT_LOADING);
     public static final String CLICKED_CELL_BG_COLOR = "-fx-background-color: #c0c0c0; ";
     public static final String CELL_BORDER_STYLE = "-fx-border-color: #888888; -fx-border-width: 0.75; ";
+    // Same colors as above, for renderers that draw cells themselves instead of using CSS
+    public static final Color CLICKED_CELL_COLOR = Color.web("#c0c0c0");
+    public static final Color CELL_BORDER_COLOR = Color.web("#888888");
+    public static final double CELL_BORDER_WIDTH = 0.75;
+    // Highlight around the cell suggested by a hint
+    public static final String HINT_BORDER_STYLE = "-fx-border-color: #00ff00; -fx-border-width: 2; ";
+    public static final Color HINT_BORDER_COLOR = Color.web("#00ff00");
+    public static final double HINT_BORDER_WIDTH = 2;
+    // Mine probability overlay: cells are tinted from SAFE to MINE color
+    public static final Color PROBABILITY_SAFE_COLOR = Color.LIME;
+    public static final Color PROBABILITY_MINE_COLOR = Color.RED;
+    public static final double PROBABILITY_OPACITY = 0.5;
+    // Game over reveal: how long each frame may spend drawing cells, and whether it spreads out from the last click
+    public static final long GAME_OVER_REVEAL_FRAME_BUDGET_NANOS = 4_000_000;
+    public static final boolean GAME_OVER_REVEAL_RIPPLE = true;
 
     // Game grid text
     public static final int CELL_FONT_SIZE = 10;
-    public static final Font CELL_FONT = Font.loadFont(UIProperties.class.getResourceAsStream(
-            "/com/chazwinter/minesweeper/font/mine-sweeper.ttf"), CELL_FONT_SIZE);
+    private static final Font DEFAULT_CELL_FONT = Font.font(CELL_FONT_SIZE);
     public static final Color CELL_TEXT_STROKE_COLOR = Color.BLACK;
     public static final double CELL_TEXT_STROKE_WIDTH = 0.3;
     public static final Map<Integer, Color> COLOR_MAP = Map.of(
@@ -55,10 +79,20 @@ public class UIProperties {
 
     // Mine Counter and Timer on main pane
     public static final int COUNTER_FONT_SIZE = 40;
-    public static final Font COUNTER_FONT = Font.loadFont(UIProperties.class.getResourceAsStream(
-            "/com/chazwinter/minesweeper/font/neon_pixel-7.ttf"), COUNTER_FONT_SIZE);
+    private static final Font DEFAULT_COUNTER_FONT = Font.font(COUNTER_FONT_SIZE);
     public static final Color COUNTER_COLOR = Color.MAGENTA;
 
+    // Performance overlay (F3)
+    public static final Font PERF_OVERLAY_FONT = Font.font("Monospaced", 11);
+    public static final Color PERF_OVERLAY_TEXT_COLOR = Color.LIGHTGREEN;
+    public static final String PERF_OVERLAY_STYLE = "-fx-background-color: rgba(0, 0, 0, 0.7); -fx-padding: 4; ";
+
+    // Endless mode: the starting window size, and the zoom levels (times CELL_SIZE) Ctrl + mouse wheel steps through
+    public static final double ENDLESS_WINDOW_WIDTH = 900;
+    public static final double ENDLESS_WINDOW_HEIGHT = 700;
+    public static final double[] ENDLESS_ZOOM_LEVELS = {0.5, 0.75, 1, 1.5, 2};
+    public static final Font ENDLESS_STATUS_FONT = Font.font("Monospaced", 12);
+
     // Settings menu
     public static final Color SETTINGS_TEXT_COLOR = Color.ANTIQUEWHITE;
     public static final Color USER_MESSAGE_NEUTRAL_COLOR = Color.CADETBLUE;
@@ -67,6 +101,39 @@ public class UIProperties {
     public static final int USER_MESSAGE_GOOD_WIDTH = 200;
     public static final int USER_MESSAGE_EVIL_WIDTH = 200;
     public static final String USER_MESSAGE_DEFAULT = "Pro Tip: If you find and right-click all the mines around " +
-            "a cell, you can left+right click (or middle click) to clear all surrounding cells.";
+            "a cell, you can left+right click (or middle click) to clear all surrounding cells. Stuck? Press H for a hint.";
     public static final int USER_MESSAGE_DEFAULT_WIDTH = 200;
+
+    /**
+     * The font for the numbers on cells. Never waits for it to load (this is called on the
+     * JavaFX Application Thread): until it has, this is the default font at the same size.
+     * @return The cell font, or the default font if it isn't loaded yet.
+     */
+    public static Font getCellFont() {
+        return CELL_FONT_LOADING.getNow(DEFAULT_CELL_FONT);
+    }
+
+    /**
+     * The font for the mine counter and the timer. Like getCellFont(), it never waits.
+     * @return The counter font, or the default font if it isn't loaded yet.
+     */
+    public static Font getCounterFont() {
+        return COUNTER_FONT_LOADING.getNow(DEFAULT_COUNTER_FONT);
+    }
+
+    /**
+     * @return True if every cell image and font has finished loading.
+     */
+    public static boolean areResourcesLoaded() {
+        return RESOURCES_LOADED.isDone();
+    }
+
+    /**
+     * Run something on the JavaFX Application Thread once every cell image and font has finished
+     * loading. If they're already loaded, it runs soon anyway.
+     * @param action What to run (for example, redrawing the board).
+     */
+    public static void whenResourcesLoaded(Runnable action) {
+        ResourceLoader.runWhenDone(RESOURCES_LOADED, action);
+    }
 }
@@ -2,6 +2,7 @@ module com.chazwinter.minesweeper {
     requires javafx.controls;
     requires javafx.fxml;
     requires javafx.media;
+    requires jdk.jfr;
 
 
     opens com.chazwinter.minesweeper to javafx.fxml;
@@ -15,4 +16,9 @@ module com.chazwinter.minesweeper {
     exports com.chazwinter.minesweeper.settings;
     exports com.chazwinter.minesweeper.util;
     opens com.chazwinter.minesweeper.util to javafx.fxml;
+    exports com.chazwinter.minesweeper.recording;
+    exports com.chazwinter.minesweeper.solver;
+    exports com.chazwinter.minesweeper.simulation;
+    exports com.chazwinter.minesweeper.perf;
+    exports com.chazwinter.minesweeper.endless;
 }
\ No newline at end of file